@@ -0,0 +1,41 @@
+package devices.configuration;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class BenchmarkApplication {
+
+    private static PostgreSQLContainer<?> postgres;
+
+    public static synchronized ConfigurableApplicationContext start(Map<String, Object> properties) {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.3-alpine"))
+                    .withReuse(true);
+            postgres.start();
+        }
+        Map<String, Object> all = new HashMap<>(Map.of(
+                "spring.datasource.url", postgres.getJdbcUrl(),
+                "spring.datasource.username", postgres.getUsername(),
+                "spring.datasource.password", postgres.getPassword(),
+                "spring.autoconfigure.exclude", String.join(",",
+                        "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration",
+                        "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration"),
+                "server.port", "0",
+                "logging.level.root", "WARN"
+        ));
+        all.putAll(properties);
+        SpringApplication application = new SpringApplication(AppRunner.class);
+        application.setDefaultProperties(all);
+        return application.run();
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,53 @@
+package devices.configuration.device;
+
+import devices.configuration.BenchmarkApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceLoadBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    int historyLength;
+
+    @Param({"false", "true"})
+    boolean snapshots;
+
+    ConfigurableApplicationContext application;
+    DeviceEventSourcingRepository repository;
+    String deviceId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = BenchmarkApplication.start(Map.of(
+                "devices.snapshots.every", snapshots ? 100 : Integer.MAX_VALUE
+        ));
+        repository = application.getBean(DeviceEventSourcingRepository.class);
+        Device device = DeviceFixture.givenStepByStepConfiguredDevice();
+        deviceId = device.deviceId;
+        repository.save(device);
+        for (int i = 4; i < historyLength; i++) {
+            device.updateSettings(Settings.builder().autoStart(i % 2 == 0).build());
+            repository.save(device);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Optional<Device> load() {
+        return repository.get(deviceId);
+    }
+}
@@ -0,0 +1,57 @@
+package devices.configuration.device;
+
+import devices.configuration.device.DomainEvent.LocationUpdated;
+import devices.configuration.device.DomainEvent.OpeningHoursUpdated;
+import devices.configuration.device.DomainEvent.OwnershipUpdated;
+import devices.configuration.device.DomainEvent.SettingsUpdated;
+import devices.configuration.tools.LastEvents;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceRehydrationBenchmark {
+
+    @Param({"4", "100"})
+    int historySize;
+
+    String deviceId;
+    List<DomainEvent> history;
+
+    @Setup
+    public void setUp() {
+        deviceId = DeviceFixture.randomId();
+        history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(switch (i % 4) {
+                case 0 -> new OwnershipUpdated(deviceId, i % 8 == 0 ? DeviceFixture.ownership() : DeviceFixture.someOtherOwnership());
+                case 1 -> new LocationUpdated(deviceId, i % 8 == 1 ? DeviceFixture.location() : DeviceFixture.someOtherLocation());
+                case 2 -> new OpeningHoursUpdated(deviceId, i % 8 == 2 ? OpeningHours.alwaysOpened() : DeviceFixture.closedAtWeekend());
+                default -> new SettingsUpdated(deviceId, i % 8 == 3 ? Settings.defaultSettings() : DeviceFixture.settingsForPublicDevice());
+            });
+        }
+    }
+
+    @Benchmark
+    public LastEvents lastEvents() {
+        return LastEvents.fromHistoryOf(history);
+    }
+
+    @Benchmark
+    public Device rehydrate() {
+        return DeviceEventSourcingRepository.fromHistory(deviceId, history);
+    }
+
+    @Benchmark
+    public DeviceConfiguration rehydrateToConfiguration() {
+        return DeviceEventSourcingRepository.fromHistory(deviceId, history)
+                .toDeviceConfiguration();
+    }
+}
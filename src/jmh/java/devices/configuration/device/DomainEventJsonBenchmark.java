@@ -0,0 +1,57 @@
+package devices.configuration.device;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import devices.configuration.device.DomainEvent.LocationUpdated;
+import devices.configuration.device.DomainEvent.OpeningHoursUpdated;
+import devices.configuration.device.DomainEvent.OwnershipUpdated;
+import devices.configuration.device.DomainEvent.SettingsUpdated;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static devices.configuration.tools.JsonConfiguration.OBJECT_MAPPER;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainEventJsonBenchmark {
+
+    private static final ObjectWriter WRITER = OBJECT_MAPPER.writerFor(DomainEvent.class);
+    private static final ObjectReader READER = OBJECT_MAPPER.readerFor(DomainEvent.class);
+
+    @Param({"OwnershipUpdated", "OwnershipUpdatedV1", "LocationUpdated", "OpeningHoursUpdated", "SettingsUpdated"})
+    String type;
+
+    DomainEvent event;
+    String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        String deviceId = DeviceFixture.randomId();
+        event = switch (type) {
+            case "OwnershipUpdated" -> new OwnershipUpdated(deviceId, DeviceFixture.ownership());
+            case "OwnershipUpdatedV1" -> new DeviceEventSourcingRepository.LegacyEvents.OwnershipUpdatedV1(
+                    deviceId, "Devicex.nl", "public-devices");
+            case "LocationUpdated" -> new LocationUpdated(deviceId, DeviceFixture.location());
+            case "OpeningHoursUpdated" -> new OpeningHoursUpdated(deviceId, DeviceFixture.closedAtWeekend());
+            case "SettingsUpdated" -> new SettingsUpdated(deviceId, DeviceFixture.settingsForPublicDevice());
+            default -> throw new IllegalArgumentException(type);
+        };
+        json = WRITER.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return WRITER.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public DomainEvent deserialize() throws JsonProcessingException {
+        return READER.readValue(json);
+    }
+}
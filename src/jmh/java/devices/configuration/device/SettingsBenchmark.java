@@ -0,0 +1,34 @@
+package devices.configuration.device;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettingsBenchmark {
+
+    Settings current = Settings.defaultSettings();
+    Settings empty = Settings.builder().build();
+    Settings partial = DeviceFixture.settingsWithPublicAccessAndShowOnMapOnly();
+    Settings full = DeviceFixture.settingsForPublicDevice();
+
+    @Benchmark
+    public Settings mergeEmpty() {
+        return current.merge(empty);
+    }
+
+    @Benchmark
+    public Settings mergePartial() {
+        return current.merge(partial);
+    }
+
+    @Benchmark
+    public Settings mergeFull() {
+        return current.merge(full);
+    }
+}
@@ -0,0 +1,47 @@
+package devices.configuration.installations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static devices.configuration.tools.JsonConfiguration.OBJECT_MAPPER;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainEventJsonBenchmark {
+
+    private static final ObjectWriter WRITER = OBJECT_MAPPER.writerFor(DomainEvent.class);
+    private static final ObjectReader READER = OBJECT_MAPPER.readerFor(DomainEvent.class);
+
+    @Param({"InstallationStarted", "DeviceAssigned", "LocationPredefined", "BootNotificationProcessed", "InstallationCompleted"})
+    String type;
+
+    DomainEvent event;
+    String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        event = ProcessFixture.given().completed().events.stream()
+                .filter(e -> e.getClass().getSimpleName().equals(type))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(type));
+        json = WRITER.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return WRITER.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public DomainEvent deserialize() throws JsonProcessingException {
+        return READER.readValue(json);
+    }
+}
@@ -0,0 +1,43 @@
+package devices.configuration.installations;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstallationProcessBenchmark {
+
+    @Param({"started", "deviceAssigned", "almostCompleted", "completed"})
+    String stage;
+
+    List<DomainEvent> history;
+
+    @Setup
+    public void setUp() {
+        ProcessFixture fixture = ProcessFixture.given();
+        InstallationProcess process = switch (stage) {
+            case "started" -> fixture.newProcess();
+            case "deviceAssigned" -> fixture.withDeviceAssigned();
+            case "almostCompleted" -> fixture.almostCompleted();
+            case "completed" -> fixture.completed();
+            default -> throw new IllegalArgumentException(stage);
+        };
+        history = List.copyOf(process.events);
+    }
+
+    @Benchmark
+    public InstallationProcess fromHistory() {
+        return InstallationProcess.fromHistory(history);
+    }
+
+    @Benchmark
+    public InstallationProcessState fromHistoryToState() {
+        return InstallationProcess.fromHistory(history).asState();
+    }
+}
@@ -0,0 +1,79 @@
+package devices.configuration.intervals;
+
+import devices.configuration.protocols.BootNotification;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static devices.configuration.intervals.IntervalRules.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntervalRulesBenchmark {
+
+    private static final int VENDORS = 500;
+    private static final int RULES = 10_000;
+
+    @Param({"deviceId", "firstModel", "lastModel", "firmware", "noMatch"})
+    String boot;
+
+    IntervalRules rules;
+    BootNotification notification;
+
+    @Setup
+    public void setUp() {
+        List<DeviceIdRule> byIds = IntStream.range(0, 10)
+                .mapToObj(i -> deviceIdRule(600 + i, Set.of("DEV-" + i + "-A", "DEV-" + i + "-B")))
+                .toList();
+        List<ModelRule> byModel = new ArrayList<>(RULES);
+        for (int i = 0; i < RULES; i++) {
+            String vendor = "Vendor " + (i % VENDORS);
+            int model = i / VENDORS;
+            byModel.add(i % 3 == 0
+                    ? firmwareRule(10, vendor, Pattern.compile("Model-" + model + "-[A-Z]+"), Pattern.compile("1[.]" + model + "[.].*"))
+                    : modelRule(60, vendor, Pattern.compile("Model-" + model + ".*")));
+        }
+        rules = new IntervalRules(byIds, byModel, 1800);
+        notification = switch (boot) {
+            case "deviceId" -> notification("DEV-7-B", "Vendor 1", "Model-0", "1.0");
+            case "firstModel" -> notification("DEV-X", "Vendor 1", "Model-0-1", "2.0");
+            case "lastModel" -> notification("DEV-X", "Vendor 499", "Model-19-XYZ", "1.19.0");
+            case "firmware" -> notification("DEV-X", "Vendor 3", "Model-0-ABC", "1.0.3");
+            default -> notification("DEV-X", "Vendor 7", "Unknown", "2.0");
+        };
+    }
+
+    @Benchmark
+    public Duration indexed() {
+        return rules.calculateInterval(notification);
+    }
+
+    @Benchmark
+    public Duration linearScan() {
+        for (Rule rule : rules.byIds()) {
+            if (rule.matches(notification)) {
+                return Duration.ofSeconds(rule.seconds());
+            }
+        }
+        for (Rule rule : rules.byModel()) {
+            if (rule.matches(notification)) {
+                return Duration.ofSeconds(rule.seconds());
+            }
+        }
+        return Duration.ofSeconds(rules.defSeconds());
+    }
+
+    private static BootNotification notification(String deviceId, String vendor, String model, String firmware) {
+        return new BootNotification(deviceId, BootNotification.Protocols.IoT16, vendor, model, "serial", firmware);
+    }
+}
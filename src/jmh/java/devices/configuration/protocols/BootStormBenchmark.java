@@ -0,0 +1,78 @@
+package devices.configuration.protocols;
+
+import devices.configuration.BenchmarkApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BootStormBenchmark {
+
+    private static final int CONCURRENT_BOOTS = 10_000;
+    private static final String BOOT = """
+            {
+              "chargePointVendor": "Garo",
+              "chargePointModel": "CPF25 Family",
+              "chargePointSerialNumber": "820394A93203",
+              "chargeBoxSerialNumber": "891234A56711",
+              "firmwareVersion": "1.1",
+              "iccid": "112233445566778899C1",
+              "imsi": "082931213347973812",
+              "meterType": "5051",
+              "meterSerialNumber": "937462A48276"
+            }""";
+
+    @Param({"false", "true"})
+    String virtualThreads;
+
+    ConfigurableApplicationContext application;
+    HttpClient client;
+    String baseUrl;
+
+    @Setup(Level.Trial)
+    public void start() {
+        application = BenchmarkApplication.start(Map.of(
+                "execution.virtual-threads", virtualThreads,
+                "server.tomcat.max-connections", CONCURRENT_BOOTS * 2,
+                "server.tomcat.accept-count", CONCURRENT_BOOTS
+        ));
+        baseUrl = "http://localhost:" + BenchmarkApplication.port(application) + "/protocols/iot16/bootnotification/";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        application.close();
+    }
+
+    @Benchmark
+    public long bootStorm() {
+        return IntStream.range(0, CONCURRENT_BOOTS)
+                .mapToObj(i -> client.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + "EVB-" + i))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(BOOT))
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding()))
+                .toList().stream()
+                .map(CompletableFuture::join)
+                .filter(response -> response.statusCode() == 200)
+                .count();
+    }
+}
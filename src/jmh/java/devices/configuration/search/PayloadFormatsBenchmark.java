@@ -0,0 +1,79 @@
+package devices.configuration.search;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devices.configuration.device.DeviceConfiguration;
+import devices.configuration.device.DeviceFixture;
+import devices.configuration.protocols.CommunicationFixture;
+import devices.configuration.tools.JsonConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatsBenchmark {
+
+    private static final int PINS = 1000;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    ObjectMapper mapper;
+    JavaType pinsType;
+    List<DevicePin> pins;
+    DeviceDetails details;
+    byte[] encodedPins;
+    byte[] encodedDetails;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "cbor" -> JsonConfiguration.CBOR_MAPPER;
+            case "smile" -> JsonConfiguration.SMILE_MAPPER;
+            default -> JsonConfiguration.OBJECT_MAPPER;
+        };
+        pinsType = mapper.getTypeFactory().constructCollectionType(List.class, DevicePin.class);
+        pins = IntStream.range(0, PINS)
+                .mapToObj(i -> DeviceFixture.givenDeviceConfiguration())
+                .map(configuration -> DevicePin.ofNullable(configuration, CommunicationFixture.statuses(configuration.deviceId())))
+                .toList();
+        DeviceConfiguration configuration = DeviceFixture.givenDeviceConfiguration();
+        details = new DeviceDetails(configuration, CommunicationFixture.boot(configuration.deviceId()));
+        encodedPins = mapper.writeValueAsBytes(pins);
+        encodedDetails = mapper.writeValueAsBytes(details);
+        System.out.printf("%n%s payload: %d pins in %d bytes, details in %d bytes%n",
+                format, PINS, encodedPins.length, encodedDetails.length);
+    }
+
+    @Benchmark
+    public byte[] encodePins() throws IOException {
+        return mapper.writeValueAsBytes(pins);
+    }
+
+    @Benchmark
+    public List<DevicePin> decodePins() throws IOException {
+        return mapper.readValue(encodedPins, pinsType);
+    }
+
+    @Benchmark
+    public byte[] encodeDetails() throws IOException {
+        return mapper.writeValueAsBytes(details);
+    }
+
+    /**
+     * Tree, as unwrapped configuration of DeviceDetails is write only.
+     */
+    @Benchmark
+    public JsonNode decodeDetails() throws IOException {
+        return mapper.readTree(encodedDetails);
+    }
+}
@@ -0,0 +1,42 @@
+package devices.configuration.search;
+
+import devices.configuration.device.DeviceConfiguration;
+import devices.configuration.device.DeviceFixture;
+import devices.configuration.protocols.CommunicationFixture;
+import devices.configuration.protocols.DeviceStatuses;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadModelsBenchmark {
+
+    DeviceConfiguration details;
+    DeviceStatuses statuses;
+
+    @Setup
+    public void setUp() {
+        details = DeviceFixture.givenDeviceConfiguration();
+        statuses = CommunicationFixture.statuses(details.deviceId());
+    }
+
+    @Benchmark
+    public DevicePin pin() {
+        return DevicePin.ofNullable(details, statuses);
+    }
+
+    @Benchmark
+    public DevicePin pinWithoutStatuses() {
+        return DevicePin.ofNullable(details, null);
+    }
+
+    @Benchmark
+    public DeviceSummary summary() {
+        return DeviceSummary.ofNullable(details, statuses);
+    }
+}
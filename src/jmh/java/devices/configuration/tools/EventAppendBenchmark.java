@@ -0,0 +1,83 @@
+package devices.configuration.tools;
+
+import devices.configuration.BenchmarkApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends events shaped like device_events rows, comparing random and time-ordered ids, one INSERT per event
+ * and single JDBC batch per aggregate. Primary key index size per row is printed after each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventAppendBenchmark {
+
+    private static final String EVENT = """
+            {"@type": "SettingsUpdated_v1", "deviceId": "EVB-P4123437", "settings": {"autoStart": true}}""";
+
+    @Param({"random", "timeOrdered"})
+    String ids;
+
+    @Param({"false", "true"})
+    boolean batched;
+
+    @Param({"4"})
+    int eventsPerAggregate;
+
+    ConfigurableApplicationContext application;
+    JdbcTemplate jdbc;
+    String table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = BenchmarkApplication.start(Map.of());
+        jdbc = application.getBean(JdbcTemplate.class);
+        table = "append_benchmark_" + ids;
+        jdbc.execute("drop table if exists " + table);
+        jdbc.execute("create table " + table + " (like device_events_default including defaults)");
+        jdbc.execute("alter table " + table + " add constraint " + table + "_pkey primary key (id)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Long rows = jdbc.queryForObject("select count(*) from " + table, Long.class);
+        Long indexBytes = jdbc.queryForObject("select pg_relation_size(?::regclass)", Long.class, table + "_pkey");
+        System.out.printf("%n%s ids, batched=%s: %d rows, pkey %d bytes, %.1f bytes/row%n",
+                ids, batched, rows, indexBytes, rows == 0 ? 0.0 : (double) indexBytes / rows);
+        jdbc.execute("drop table " + table);
+        application.close();
+    }
+
+    @Benchmark
+    public void append() {
+        String sql = "insert into " + table + " (id, device_id, type, time, event) values (?, ?, ?, ?, ?::jsonb)";
+        String deviceId = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(eventsPerAggregate);
+        for (int i = 0; i < eventsPerAggregate; i++) {
+            rows.add(new Object[]{id(), deviceId, "SettingsUpdated_v1", now, EVENT});
+        }
+        if (batched) {
+            jdbc.batchUpdate(sql, rows);
+        } else {
+            rows.forEach(row -> jdbc.update(sql, row));
+        }
+    }
+
+    private UUID id() {
+        return ids.equals("random") ? UUID.randomUUID() : TimeOrderedIds.next();
+    }
+}
@@ -0,0 +1,44 @@
+package devices.configuration.device;
+
+import javax.validation.Valid;
+import javax.validation.constraints.AssertTrue;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+record BulkUpdateDevices(
+        @Valid List<DeviceUpdate> devices,
+        @Valid DeviceFilter filter,
+        @Valid UpdateDevice update) {
+
+    record DeviceUpdate(String deviceId, @Valid UpdateDevice update) {
+    }
+
+    @AssertTrue(message = "either devices or filter with update is required")
+    boolean isEitherDevicesOrFilter() {
+        return devices != null ^ (filter != null && update != null);
+    }
+
+    @AssertTrue(message = "each device can be listed only once")
+    boolean isEachDeviceOnce() {
+        return devices == null || devices.stream()
+                .map(DeviceUpdate::deviceId)
+                .distinct()
+                .count() == devices.size();
+    }
+
+    Map<String, UpdateDevice> updates(List<String> filtered) {
+        Map<String, UpdateDevice> updates = new LinkedHashMap<>();
+        if (devices != null) {
+            devices.forEach(device -> updates.put(device.deviceId(), device.update()));
+        } else {
+            filtered.forEach(deviceId -> updates.put(deviceId, update));
+        }
+        return updates;
+    }
+
+    enum Status {UPDATED, NOT_FOUND, CONFLICT, FAILED}
+
+    record Result(String deviceId, Status status, DeviceConfiguration configuration) {
+    }
+}
@@ -0,0 +1,102 @@
+package devices.configuration.device;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import devices.configuration.tools.DatabaseNotifications;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of device configurations in front of the document repository.
+ * Entries are evicted on local save, on DeviceConfiguration events and on save notification from any node.
+ */
+@Primary
+@Repository
+class CachingDeviceRepository implements DeviceRepository {
+
+    static final String CHANNEL = "device_configurations";
+
+    private final DeviceDocumentWithHistoryRepository repository;
+    private final DatabaseNotifications notifications;
+    private final Cache<String, DeviceConfiguration> configurations;
+
+    CachingDeviceRepository(DeviceDocumentWithHistoryRepository repository,
+                            DatabaseNotifications notifications,
+                            MeterRegistry registry,
+                            @Value("${devices.cache.size}") long size,
+                            @Value("${devices.cache.ttl}") Duration ttl) {
+        this.repository = repository;
+        this.notifications = notifications;
+        this.configurations = Caffeine.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, configurations, "deviceConfigurations");
+    }
+
+    @PostConstruct
+    void listenForChanges() {
+        notifications.listen(CHANNEL, deviceId -> {
+            if (deviceId == null) {
+                configurations.invalidateAll();
+            } else {
+                configurations.invalidate(deviceId);
+            }
+        });
+    }
+
+    @EventListener
+    public void handle(DeviceConfiguration configuration) {
+        configurations.invalidate(configuration.deviceId());
+    }
+
+    @Override
+    public Optional<DeviceConfiguration> getConfiguration(String deviceId) {
+        return Optional.ofNullable(configurations.get(deviceId,
+                id -> repository.getConfiguration(id).orElse(null)));
+    }
+
+    @Override
+    public Optional<Device> get(String deviceId) {
+        return repository.get(deviceId);
+    }
+
+    @Override
+    public Map<String, Device> getAll(Collection<String> deviceIds) {
+        return repository.getAll(deviceIds);
+    }
+
+    @Override
+    public List<String> findIds(DeviceFilter filter) {
+        return repository.findIds(filter);
+    }
+
+    @Override
+    public void save(Device device) {
+        repository.save(device);
+        evict(device.deviceId);
+    }
+
+    @Override
+    public void saveAll(Collection<Device> devices) {
+        repository.saveAll(devices);
+        devices.forEach(device -> evict(device.deviceId));
+    }
+
+    private void evict(String deviceId) {
+        configurations.invalidate(deviceId);
+        notifications.notify(CHANNEL, deviceId);
+    }
+}
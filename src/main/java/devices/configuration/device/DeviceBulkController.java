@@ -0,0 +1,104 @@
+package devices.configuration.device;
+
+import devices.configuration.device.BulkUpdateDevices.Result;
+import devices.configuration.device.BulkUpdateDevices.Status;
+import devices.configuration.tools.JsonConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+@Slf4j
+@RestController
+class DeviceBulkController {
+
+    private final DeviceService service;
+    private final int chunkSize;
+    private final int maxDevices;
+
+    DeviceBulkController(DeviceService service,
+                         @Value("${devices.bulk.chunk-size}") int chunkSize,
+                         @Value("${devices.bulk.max-devices}") int maxDevices) {
+        this.service = service;
+        this.chunkSize = chunkSize;
+        this.maxDevices = maxDevices;
+    }
+
+    @PatchMapping(path = "/devices",
+            consumes = APPLICATION_JSON_VALUE,
+            produces = APPLICATION_NDJSON_VALUE)
+    StreamingResponseBody patchStations(@RequestBody @Valid BulkUpdateDevices bulk) {
+        Map<String, UpdateDevice> updates = bulk.updates(bulk.filter() == null
+                ? List.of()
+                : service.findDeviceIds(bulk.filter()));
+        if (updates.size() > maxDevices) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "at most " + maxDevices + " devices can be updated at once");
+        }
+        List<String> deviceIds = new ArrayList<>(updates.keySet());
+        return output -> {
+            for (int from = 0; from < deviceIds.size(); from += chunkSize) {
+                List<String> chunk = deviceIds.subList(from, Math.min(from + chunkSize, deviceIds.size()));
+                write(output, update(chunk, updates));
+            }
+        };
+    }
+
+    private List<Result> update(List<String> chunk, Map<String, UpdateDevice> updates) {
+        Map<String, UpdateDevice> chunkUpdates = new LinkedHashMap<>();
+        chunk.forEach(deviceId -> chunkUpdates.put(deviceId, updates.get(deviceId)));
+        try {
+            Map<String, Optional<DeviceConfiguration>> updated = service.update(chunkUpdates);
+            return chunk.stream()
+                    .map(deviceId -> result(deviceId, updated.get(deviceId)))
+                    .toList();
+        } catch (RuntimeException e) {
+            // whole chunk was rolled back, retried device by device so only the failing ones are reported
+            return chunk.stream()
+                    .map(deviceId -> update(deviceId, updates.get(deviceId)))
+                    .toList();
+        }
+    }
+
+    private Result update(String deviceId, UpdateDevice update) {
+        try {
+            return result(deviceId, service.update(deviceId, update));
+        } catch (OptimisticLockingFailureException e) {
+            return new Result(deviceId, Status.CONFLICT, null);
+        } catch (RuntimeException e) {
+            log.error("Bulk update of device {} failed", deviceId, e);
+            return new Result(deviceId, Status.FAILED, null);
+        }
+    }
+
+    private static Result result(String deviceId, Optional<DeviceConfiguration> updated) {
+        return updated
+                .map(configuration -> new Result(deviceId, Status.UPDATED, configuration))
+                .orElseGet(() -> new Result(deviceId, Status.NOT_FOUND, null));
+    }
+
+    private static void write(OutputStream output, List<Result> results) throws IOException {
+        for (Result result : results) {
+            output.write(JsonConfiguration.OBJECT_MAPPER.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+}
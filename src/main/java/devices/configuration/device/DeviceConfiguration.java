@@ -8,4 +8,8 @@ public record DeviceConfiguration(
         Settings settings,
         Violations violations,
         Visibility visibility) {
+
+    public OpeningHoursMask openingHoursMask() {
+        return openingHours == null ? null : OpeningHoursMask.of(openingHours);
+    }
 }
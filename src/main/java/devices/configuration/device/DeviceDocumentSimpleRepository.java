@@ -1,13 +1,16 @@
 package devices.configuration.device;
 
+import devices.configuration.tools.PersistableEntity;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Type;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.*;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -30,14 +33,26 @@ class DeviceDocumentSimpleRepository implements DeviceRepository {
         );
     }
 
+    @Override
+    public List<String> findIds(DeviceFilter filter) {
+        return documents.findIds(filter.operator(), filter.provider());
+    }
+
     @Repository
     interface DocumentRepository extends PagingAndSortingRepository<DeviceDocumentEntity, String> {
+        @Query(value = """
+                select device_id
+                from device_document
+                where (cast(:operator as text) is null or device -> 'ownership' ->> 'operator' = :operator)
+                  and (cast(:provider as text) is null or device -> 'ownership' ->> 'provider' = :provider)
+                order by device_id""", nativeQuery = true)
+        List<String> findIds(String operator, String provider);
     }
 
     @Entity
     @Table(name = "device_document")
     @NoArgsConstructor
-    static class DeviceDocumentEntity {
+    static class DeviceDocumentEntity extends PersistableEntity<String> {
         @Id
         private String deviceId;
         @Version
@@ -48,6 +63,11 @@ class DeviceDocumentSimpleRepository implements DeviceRepository {
         @Column(columnDefinition = "jsonb")
         private Device device;
 
+        @Override
+        public String getId() {
+            return deviceId;
+        }
+
         public DeviceDocumentEntity setDevice(Device device) {
             this.device = device;
             return this;
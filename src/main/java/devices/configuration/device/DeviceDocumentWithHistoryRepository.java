@@ -1,30 +1,29 @@
 package devices.configuration.device;
 
 import devices.configuration.tools.EventTypes;
+import devices.configuration.tools.Outbox;
+import devices.configuration.tools.PersistableEntity;
+import devices.configuration.tools.TimeOrderedIds;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Type;
-import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.*;
 import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 
-@Primary
 @Repository
 @AllArgsConstructor
 class DeviceDocumentWithHistoryRepository implements DeviceRepository {
 
     private final DocumentRepository documents;
     private final EventRepository events;
-    private final ApplicationEventPublisher publisher;
+    private final Outbox outbox;
 
     @Override
     public Optional<Device> get(String deviceId) {
@@ -32,6 +31,41 @@ class DeviceDocumentWithHistoryRepository implements DeviceRepository {
                 .map(DeviceDocumentEntity::getDevice);
     }
 
+    @Override
+    public Map<String, Device> getAll(Collection<String> deviceIds) {
+        Map<String, Device> devices = new LinkedHashMap<>();
+        documents.findAllById(deviceIds)
+                .forEach(document -> devices.put(document.deviceId, document.getDevice()));
+        return devices;
+    }
+
+    @Override
+    public List<String> findIds(DeviceFilter filter) {
+        return documents.findIds(filter.operator(), filter.provider());
+    }
+
+    @Override
+    public void saveAll(Collection<Device> devices) {
+        List<DeviceEventEntity> appended = new ArrayList<>();
+        List<DeviceConfiguration> configurations = new ArrayList<>();
+        List<DomainEvent> emitted = new ArrayList<>();
+        for (Device device : devices) {
+            List<DomainEvent> pending = eventsEmittedFrom(device);
+            documents.save(documents.findById(device.deviceId)
+                    .orElseGet(() -> new DeviceDocumentEntity(device.deviceId))
+                    .setDevice(device)
+            );
+            pending.forEach(event -> appended.add(new DeviceEventEntity(device.deviceId, event)));
+            if (!pending.isEmpty()) {
+                configurations.add(device.toDeviceConfiguration());
+            }
+            emitted.addAll(pending);
+        }
+        events.saveAll(appended);
+        outbox.publishAll(configurations, DeviceConfiguration::deviceId);
+        outbox.publishAll(emitted, DomainEvent::deviceId);
+    }
+
     @Override
     public void save(Device device) {
         List<DomainEvent> emitted = eventsEmittedFrom(device);
@@ -39,13 +73,13 @@ class DeviceDocumentWithHistoryRepository implements DeviceRepository {
                 .orElseGet(() -> new DeviceDocumentEntity(device.deviceId))
                 .setDevice(device)
         );
-        emitted.forEach(event -> events.save(
-                new DeviceEventEntity(device.deviceId, event)
-        ));
+        events.saveAll(emitted.stream()
+                .map(event -> new DeviceEventEntity(device.deviceId, event))
+                .toList());
         if (!emitted.isEmpty()) {
-            publisher.publishEvent(device.toDeviceConfiguration());
+            outbox.publish(device.deviceId, device.toDeviceConfiguration());
         }
-        emitted.forEach(publisher::publishEvent);
+        outbox.publishAll(device.deviceId, emitted);
     }
 
     private static List<DomainEvent> eventsEmittedFrom(Device device) {
@@ -56,12 +90,19 @@ class DeviceDocumentWithHistoryRepository implements DeviceRepository {
 
     @Repository
     interface DocumentRepository extends PagingAndSortingRepository<DeviceDocumentEntity, String> {
+        @Query(value = """
+                select device_id
+                from device_document
+                where (cast(:operator as text) is null or device -> 'ownership' ->> 'operator' = :operator)
+                  and (cast(:provider as text) is null or device -> 'ownership' ->> 'provider' = :provider)
+                order by device_id""", nativeQuery = true)
+        List<String> findIds(String operator, String provider);
     }
 
     @Entity
     @Table(name = "device_document")
     @NoArgsConstructor
-    static class DeviceDocumentEntity {
+    static class DeviceDocumentEntity extends PersistableEntity<String> {
         @Id
         private String deviceId;
         @Version
@@ -72,6 +113,11 @@ class DeviceDocumentWithHistoryRepository implements DeviceRepository {
         @Column(columnDefinition = "jsonb")
         private Device device;
 
+        @Override
+        public String getId() {
+            return deviceId;
+        }
+
         public DeviceDocumentEntity setDevice(Device device) {
             this.device = device;
             return this;
@@ -89,7 +135,7 @@ class DeviceDocumentWithHistoryRepository implements DeviceRepository {
     @Entity
     @Table(name = "device_events")
     @NoArgsConstructor
-    static class DeviceEventEntity {
+    static class DeviceEventEntity extends PersistableEntity<UUID> {
         @Id
         private UUID id;
         private String deviceId;
@@ -99,8 +145,13 @@ class DeviceDocumentWithHistoryRepository implements DeviceRepository {
         @Column(columnDefinition = "jsonb")
         private DomainEvent event;
 
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
         DeviceEventEntity(String deviceId, DomainEvent event) {
-            this.id = UUID.randomUUID();
+            this.id = TimeOrderedIds.next();
             this.deviceId = deviceId;
             this.type = EventTypes.of(event).type();
             this.time = Instant.now();
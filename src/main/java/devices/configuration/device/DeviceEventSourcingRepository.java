@@ -3,65 +3,148 @@ package devices.configuration.device;
 import devices.configuration.tools.EventTypes;
 import devices.configuration.tools.LastEvents;
 import devices.configuration.tools.LegacyDomainEvent;
-import lombok.AllArgsConstructor;
+import devices.configuration.tools.Outbox;
+import devices.configuration.tools.PersistableEntity;
+import devices.configuration.tools.TimeOrderedIds;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.hibernate.annotations.Type;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.Id;
-import javax.persistence.Table;
+import javax.persistence.*;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static devices.configuration.device.DomainEvent.*;
 
+@Slf4j
 @Repository
-@AllArgsConstructor
 class DeviceEventSourcingRepository implements DeviceRepository {
 
     private final EventRepository repository;
-    private final ApplicationEventPublisher publisher;
+    private final SnapshotRepository snapshots;
+    private final Outbox outbox;
+    private final TransactionTemplate transactions;
+    private final int snapshotEvery;
+    private final int backfillBatch;
+
+    DeviceEventSourcingRepository(EventRepository repository,
+                                  SnapshotRepository snapshots,
+                                  Outbox outbox,
+                                  TransactionTemplate transactions,
+                                  @Value("${devices.snapshots.every}") int snapshotEvery,
+                                  @Value("${devices.snapshots.backfill-batch}") int backfillBatch) {
+        this.repository = repository;
+        this.snapshots = snapshots;
+        this.outbox = outbox;
+        this.transactions = transactions;
+        this.snapshotEvery = snapshotEvery;
+        this.backfillBatch = backfillBatch;
+    }
 
     @Override
     public Optional<Device> get(String deviceId) {
-        List<DomainEvent> history = repository.findByDeviceId(deviceId).stream()
+        Optional<DeviceSnapshotEntity> snapshot = snapshots.findById(deviceId);
+        List<DomainEvent> history = snapshot
+                .map(taken -> repository.findByDeviceIdSince(deviceId, taken.sequenceNumber()))
+                .orElseGet(() -> repository.findByDeviceId(deviceId)).stream()
                 .map(DeviceEventEntity::getEvent)
                 .map(LegacyDomainEvent::normalise)
                 .collect(Collectors.toList());
-        if (history.isEmpty()) {
+        if (history.isEmpty() && snapshot.isEmpty()) {
             return Optional.empty();
         }
         Collections.reverse(history);
+        return Optional.of(fromHistory(deviceId, snapshot
+                .map(DeviceSnapshotEntity::getSnapshot)
+                .orElse(Snapshot.EMPTY), history));
+    }
+
+    @Override
+    public List<String> findIds(DeviceFilter filter) {
+        return repository.findIds(filter.operator(), filter.provider());
+    }
+
+    static Device fromHistory(String deviceId, List<DomainEvent> history) {
+        return fromHistory(deviceId, Snapshot.EMPTY, history);
+    }
+
+    static Device fromHistory(String deviceId, Snapshot snapshot, List<DomainEvent> history) {
         LastEvents events = LastEvents.fromHistoryOf(history);
-        Device device = new Device(deviceId, new ArrayList<>(),
-                events.getOrNull(OwnershipUpdated.class, OwnershipUpdated::ownership),
-                events.getOrNull(LocationUpdated.class, LocationUpdated::location),
-                events.getOrDefault(OpeningHoursUpdated.class, OpeningHoursUpdated::openingHours, OpeningHours.alwaysOpened()),
-                events.getOrDefault(SettingsUpdated.class, SettingsUpdated::settings, Settings.defaultSettings())
+        return new Device(deviceId, new ArrayList<>(),
+                events.getOrDefault(OwnershipUpdated.class, OwnershipUpdated::ownership, snapshot.ownership()),
+                events.getOrDefault(LocationUpdated.class, LocationUpdated::location, snapshot.location()),
+                events.getOrDefault(OpeningHoursUpdated.class, OpeningHoursUpdated::openingHours, snapshot.openingHours()),
+                events.getOrDefault(SettingsUpdated.class, SettingsUpdated::settings, snapshot.settings())
         );
-        return Optional.of(device);
     }
 
+    /**
+     * Counting appended events locks the device counter before the events are inserted,
+     * so events of one device get sequence numbers in the order their transactions commit.
+     */
     @Override
     public void save(Device device) {
         List<DomainEvent> events = emittedFrom(device);
-        events.forEach(event -> {
-            repository.save(new DeviceEventEntity(
-                    device.deviceId,
-                    EventTypes.of(event),
-                    event));
-            publisher.publishEvent(event);
-        });
-        if (!events.isEmpty()) {
-            publisher.publishEvent(device.toDeviceConfiguration());
+        if (events.isEmpty()) {
+            return;
+        }
+        int sinceSnapshot = repository.countSinceSnapshot(device.deviceId, events.size());
+        repository.saveAll(events.stream()
+                .map(event -> new DeviceEventEntity(
+                        device.deviceId,
+                        EventTypes.of(event),
+                        event))
+                .toList());
+        outbox.publishAll(device.deviceId, events);
+        DeviceConfiguration configuration = device.toDeviceConfiguration();
+        if (sinceSnapshot >= snapshotEvery) {
+            snapshot(device.deviceId, configuration);
+        }
+        outbox.publish(device.deviceId, configuration);
+    }
+
+    private void snapshot(String deviceId, DeviceConfiguration configuration) {
+        snapshots.save(new DeviceSnapshotEntity(deviceId, repository.findLastSequenceNumber(deviceId),
+                Snapshot.of(configuration)));
+        repository.resetSinceSnapshot(deviceId);
+    }
+
+    @Scheduled(fixedDelayString = "${devices.snapshots.backfill-delay}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillSnapshots() {
+        Integer taken;
+        do {
+            taken = transactions.execute(status -> backfillBatch());
+        } while (taken != null && taken == backfillBatch);
+    }
+
+    /**
+     * Snapshots a batch of due devices in one transaction under a transaction scoped advisory lock,
+     * a node finding the lock taken leaves the backfill to the node holding it.
+     * Counters of due devices stay locked until commit, so saves of those devices wait for their snapshots.
+     */
+    private int backfillBatch() {
+        if (!repository.tryLockSnapshotBackfill()) {
+            return 0;
         }
+        List<String> due = repository.lockDueForSnapshot(snapshotEvery, backfillBatch);
+        due.forEach(deviceId -> get(deviceId).ifPresent(device ->
+                snapshot(deviceId, device.toDeviceConfiguration())));
+        if (!due.isEmpty()) {
+            log.info("Taken snapshots of {} devices", due.size());
+        }
+        return due.size();
     }
 
     private static List<DomainEvent> emittedFrom(Device device) {
@@ -76,26 +159,138 @@ class DeviceEventSourcingRepository implements DeviceRepository {
                 select distinct on (type) *
                 from device_events
                 where device_id = :deviceId
-                order by type, time desc""", nativeQuery = true)
+                order by type, sequence_number desc""", nativeQuery = true)
         List<DeviceEventEntity> findByDeviceId(String deviceId);
+
+        @Query(value = """
+                select distinct on (type) *
+                from device_events
+                where device_id = :deviceId
+                  and sequence_number > :since
+                order by type, sequence_number desc""", nativeQuery = true)
+        List<DeviceEventEntity> findByDeviceIdSince(String deviceId, long since);
+
+        /**
+         * Adds appended events to the device counter and returns events appended since its last snapshot.
+         */
+        @Query(value = """
+                insert into device_event_counts (device_id, since_snapshot)
+                values (:deviceId, :appended)
+                on conflict (device_id) do update
+                set since_snapshot = device_event_counts.since_snapshot + excluded.since_snapshot
+                returning since_snapshot""", nativeQuery = true)
+        int countSinceSnapshot(String deviceId, int appended);
+
+        @Modifying
+        @Transactional
+        @Query(value = """
+                update device_event_counts
+                set since_snapshot = 0
+                where device_id = :deviceId""", nativeQuery = true)
+        void resetSinceSnapshot(String deviceId);
+
+        /**
+         * Filters by the latest ownership event of each device, both its current and legacy shape.
+         */
+        @Query(value = """
+                select device_id
+                from (select distinct on (device_id) device_id,
+                             coalesce(event -> 'ownership' ->> 'operator', event ->> 'operator') as operator,
+                             coalesce(event -> 'ownership' ->> 'provider', event ->> 'provider') as provider
+                      from device_events
+                      where type = 'OwnershipUpdated'
+                      order by device_id, sequence_number desc) ownership
+                where (cast(:operator as text) is null or operator = :operator)
+                  and (cast(:provider as text) is null or provider = :provider)
+                order by device_id""", nativeQuery = true)
+        List<String> findIds(String operator, String provider);
+
+        @Query(value = """
+                select max(sequence_number)
+                from device_events
+                where device_id = :deviceId""", nativeQuery = true)
+        Long findLastSequenceNumber(String deviceId);
+
+        @Query(value = "select pg_try_advisory_xact_lock(hashtext('device_snapshots'))", nativeQuery = true)
+        boolean tryLockSnapshotBackfill();
+
+        @Query(value = """
+                select device_id
+                from device_event_counts
+                where since_snapshot >= :every
+                limit :batch
+                for update skip locked""", nativeQuery = true)
+        List<String> lockDueForSnapshot(int every, int batch);
+    }
+
+    @Repository
+    interface SnapshotRepository extends CrudRepository<DeviceSnapshotEntity, String> {
+    }
+
+    record Snapshot(Ownership ownership, Location location, OpeningHours openingHours, Settings settings) {
+        static final Snapshot EMPTY = new Snapshot(null, null, OpeningHours.alwaysOpened(), Settings.defaultSettings());
+
+        static Snapshot of(DeviceConfiguration configuration) {
+            return new Snapshot(
+                    configuration.ownership(),
+                    configuration.location(),
+                    configuration.openingHours(),
+                    configuration.settings()
+            );
+        }
+    }
+
+    @Entity
+    @Table(name = "device_snapshots")
+    @NoArgsConstructor
+    static class DeviceSnapshotEntity {
+        @Id
+        private String deviceId;
+        private Long sequenceNumber;
+        private Instant time;
+        @Getter
+        @Type(type = "jsonb")
+        @Column(columnDefinition = "jsonb")
+        private Snapshot snapshot;
+
+        DeviceSnapshotEntity(String deviceId, Long sequenceNumber, Snapshot snapshot) {
+            this.deviceId = deviceId;
+            this.sequenceNumber = sequenceNumber;
+            this.time = Instant.now();
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * Snapshots migrated from before sequence numbers without an event older than them replay every event.
+         */
+        long sequenceNumber() {
+            return sequenceNumber == null ? 0 : sequenceNumber;
+        }
     }
 
     @Entity
     @Table(name = "device_events")
     @NoArgsConstructor
-    static class DeviceEventEntity {
+    static class DeviceEventEntity extends PersistableEntity<UUID> {
         @Id
         private UUID id;
         private String deviceId;
         private String type;
         private Instant time;
+        @Column(insertable = false, updatable = false)
+        private Long sequenceNumber;
         @Getter
         @Type(type = "jsonb")
         @Column(columnDefinition = "jsonb")
         private DomainEvent event;
 
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
         DeviceEventEntity(String deviceId, EventTypes.Type type, DomainEvent event) {
-            this.id = UUID.randomUUID();
+            this.id = TimeOrderedIds.next();
             this.deviceId = deviceId;
             this.type = type.type();
             this.time = Instant.now();
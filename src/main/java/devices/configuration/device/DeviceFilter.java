@@ -0,0 +1,14 @@
+package devices.configuration.device;
+
+import javax.validation.constraints.AssertTrue;
+
+/**
+ * Devices matching all given fields, at least one field is required so a filter never selects the whole fleet.
+ */
+public record DeviceFilter(String operator, String provider) {
+
+    @AssertTrue(message = "filter requires operator or provider")
+    boolean isNotEmpty() {
+        return operator != null || provider != null;
+    }
+}
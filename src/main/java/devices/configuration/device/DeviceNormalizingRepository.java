@@ -4,14 +4,14 @@ import devices.configuration.device.OpeningHours.OpeningTime;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static devices.configuration.device.OpeningHours.OpeningTime.*;
@@ -28,6 +28,14 @@ class DeviceNormalizingRepository implements DeviceRepository {
                 .map(DeviceEntity::getDevice);
     }
 
+    @Override
+    public Map<String, Device> getAll(Collection<String> deviceIds) {
+        Map<String, Device> devices = new LinkedHashMap<>();
+        repository.findAllWithOpeningHours(deviceIds)
+                .forEach(entity -> devices.put(entity.getDeviceId(), entity.getDevice()));
+        return devices;
+    }
+
     @Override
     public void save(Device device) {
         DeviceEntity entity = repository.findById(device.deviceId)
@@ -36,8 +44,22 @@ class DeviceNormalizingRepository implements DeviceRepository {
         repository.save(entity);
     }
 
+    @Override
+    public List<String> findIds(DeviceFilter filter) {
+        return repository.findIds(filter.operator(), filter.provider());
+    }
+
     @Repository
     interface NormalizedRepository extends PagingAndSortingRepository<DeviceEntity, String> {
+        @Query("""
+                select d.deviceId from DeviceEntity d
+                where (:operator is null or d.operator = :operator)
+                  and (:provider is null or d.provider = :provider)
+                order by d.deviceId""")
+        List<String> findIds(String operator, String provider);
+
+        @Query("select distinct d from DeviceEntity d left join fetch d.openingHours where d.deviceId in :deviceIds")
+        List<DeviceEntity> findAllWithOpeningHours(Collection<String> deviceIds);
     }
 
     @Data
@@ -77,9 +99,10 @@ class DeviceNormalizingRepository implements DeviceRepository {
         @Column(name = "public_access")
         private boolean publicAccess;
 
-        @OneToMany(orphanRemoval = true)
-        @JoinColumn(name = "device_id", referencedColumnName = "device_id")
-        private List<OpeningHoursEntity> openingHours;
+        @BatchSize(size = 100)
+        @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+        @JoinColumn(name = "device_id", referencedColumnName = "device_id", insertable = false, updatable = false)
+        private List<OpeningHoursEntity> openingHours = new ArrayList<>();
 
         public DeviceEntity(String deviceId) {
             this.deviceId = deviceId;
@@ -136,22 +159,31 @@ class DeviceNormalizingRepository implements DeviceRepository {
             this.showOnMap = dev.settings().isShowOnMap();
             this.publicAccess = dev.settings().isPublicAccess();
 
-            openingHours(dev.openingHours());
+            updateOpeningHours(dev.openingHours());
         }
 
-        private List<OpeningHoursEntity> openingHours(OpeningHours openingHours) {
-            if (openingHours.alwaysOpen()) {
-                return List.of();
-            }
-            return List.of(
-                    OpeningHoursEntity.of(deviceId, "monday", openingHours.opened().monday()),
-                    OpeningHoursEntity.of(deviceId, "tuesday", openingHours.opened().tuesday()),
-                    OpeningHoursEntity.of(deviceId, "wednesday", openingHours.opened().wednesday()),
-                    OpeningHoursEntity.of(deviceId, "thursday", openingHours.opened().thursday()),
-                    OpeningHoursEntity.of(deviceId, "friday", openingHours.opened().friday()),
-                    OpeningHoursEntity.of(deviceId, "saturday", openingHours.opened().saturday()),
-                    OpeningHoursEntity.of(deviceId, "sunday", openingHours.opened().sunday())
-            );
+        private void updateOpeningHours(OpeningHours openingHours) {
+            Map<String, OpeningTime> week = openingHours.alwaysOpen() ? Map.of() : week(openingHours.opened());
+            this.openingHours.removeIf(day -> !week.containsKey(day.getDayOfWeek()));
+            week.forEach((dayOfWeek, time) -> this.openingHours.stream()
+                    .filter(day -> day.getDayOfWeek().equals(dayOfWeek))
+                    .findFirst()
+                    .ifPresentOrElse(
+                            day -> day.set(time),
+                            () -> this.openingHours.add(OpeningHoursEntity.of(deviceId, dayOfWeek, time))
+                    ));
+        }
+
+        private static Map<String, OpeningTime> week(OpeningHours.Week week) {
+            Map<String, OpeningTime> days = new LinkedHashMap<>();
+            days.put("monday", week.monday());
+            days.put("tuesday", week.tuesday());
+            days.put("wednesday", week.wednesday());
+            days.put("thursday", week.thursday());
+            days.put("friday", week.friday());
+            days.put("saturday", week.saturday());
+            days.put("sunday", week.sunday());
+            return days;
         }
 
         private OpeningHours openingHours() {
@@ -182,6 +214,8 @@ class DeviceNormalizingRepository implements DeviceRepository {
     @NoArgsConstructor
     static class OpeningHoursEntity {
         @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "opening_hours_id")
+        @SequenceGenerator(name = "opening_hours_id", sequenceName = "opening_hours_id_seq", allocationSize = 50)
         private Long id;
         @Column(name = "device_id")
         private String deviceId;
@@ -195,21 +229,31 @@ class DeviceNormalizingRepository implements DeviceRepository {
             OpeningHoursEntity entity = new OpeningHoursEntity();
             entity.deviceId = deviceId;
             entity.dayOfWeek = dayOfWeek;
+            entity.set(openingTime);
+            return entity;
+        }
+
+        void set(OpeningTime openingTime) {
             switch (openingTime) {
                 case Opened24h ignored -> {
-                    entity.open24h = true;
-                    entity.closed = false;
+                    open24h = true;
+                    closed = false;
+                    open = null;
+                    close = null;
                 }
                 case Closed24h ignored -> {
-                    entity.open24h = false;
-                    entity.closed = true;
+                    open24h = false;
+                    closed = true;
+                    open = null;
+                    close = null;
                 }
                 case OpenTime time -> {
-                    entity.open = time.time().get(0).open().getHour();
-                    entity.close = time.time().get(0).close().getHour();
+                    open24h = false;
+                    closed = false;
+                    open = time.time().get(0).open().getHour();
+                    close = time.time().get(0).close().getHour();
                 }
             }
-            return entity;
         }
 
         OpeningTime toOpeningTime() {
@@ -1,5 +1,9 @@
 package devices.configuration.device;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 interface DeviceRepository {
@@ -7,4 +11,22 @@ interface DeviceRepository {
     Optional<Device> get(String deviceId);
 
     void save(Device device);
+
+    default Optional<DeviceConfiguration> getConfiguration(String deviceId) {
+        return get(deviceId)
+                .map(Device::toDeviceConfiguration);
+    }
+
+    default Map<String, Device> getAll(Collection<String> deviceIds) {
+        Map<String, Device> devices = new LinkedHashMap<>();
+        deviceIds.forEach(deviceId -> get(deviceId)
+                .ifPresent(device -> devices.put(deviceId, device)));
+        return devices;
+    }
+
+    default void saveAll(Collection<Device> devices) {
+        devices.forEach(this::save);
+    }
+
+    List<String> findIds(DeviceFilter filter);
 }
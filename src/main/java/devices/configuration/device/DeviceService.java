@@ -2,8 +2,12 @@ package devices.configuration.device;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -13,10 +17,9 @@ public class DeviceService {
 
     private final DeviceRepository repository;
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<DeviceConfiguration> get(String deviceId) {
-        return repository.get(deviceId)
-                .map(Device::toDeviceConfiguration);
+        return repository.getConfiguration(deviceId);
     }
 
     public DeviceConfiguration createNewDevice(String deviceId, UpdateDevice update) {
@@ -34,4 +37,19 @@ public class DeviceService {
                     return device.toDeviceConfiguration();
                 });
     }
+
+    public Map<String, Optional<DeviceConfiguration>> update(Map<String, UpdateDevice> updates) {
+        Map<String, Device> devices = repository.getAll(updates.keySet());
+        devices.forEach((deviceId, device) -> updates.get(deviceId).apply(device));
+        repository.saveAll(devices.values());
+        Map<String, Optional<DeviceConfiguration>> results = new LinkedHashMap<>();
+        updates.keySet().forEach(deviceId -> results.put(deviceId, Optional.ofNullable(devices.get(deviceId))
+                .map(Device::toDeviceConfiguration)));
+        return results;
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> findDeviceIds(DeviceFilter filter) {
+        return repository.findIds(filter);
+    }
 }
@@ -13,6 +13,8 @@ import devices.configuration.device.DeviceEventSourcingRepository.LegacyEvents;
         @JsonSubTypes.Type(value = DomainEvent.SettingsUpdated.class, name = "SettingsUpdated_v1")
 })
 public interface DomainEvent {
+    String deviceId();
+
     record LocationUpdated(String deviceId, Location location) implements DomainEvent {
     }
 
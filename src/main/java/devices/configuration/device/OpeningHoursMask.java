@@ -0,0 +1,164 @@
+package devices.configuration.device;
+
+import devices.configuration.device.OpeningHours.OpeningTime;
+import devices.configuration.device.OpeningHours.OpeningTime.Closed24h;
+import devices.configuration.device.OpeningHours.OpeningTime.OpenTime;
+import devices.configuration.device.OpeningHours.OpeningTime.Opened24h;
+import devices.configuration.device.OpeningHours.OpeningTime.TimeSpan;
+
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Week of opening hours packed into 7 x 96 quarter-hour bits, monday 00:00 being bit 0.
+ * Conversion from and to {@link OpeningHours} is lossless for spans aligned to quarters of an hour
+ * and closing by midnight, a span closing at or before its opening time spills into the next day
+ * (sunday into monday) and converts back as two spans, one on each day.
+ * Byte encoding numbers bits within each byte from least significant one, the same way Postgres get_bit does.
+ * Masks are evaluated where they are stored, read models filter by {@code get_bit(opening_hours, slotOf(time))},
+ * {@link #isOpenAt} is the in-memory counterpart of that predicate.
+ */
+public final class OpeningHoursMask {
+
+    static final int SLOTS_PER_DAY = 96;
+    static final int SLOTS = 7 * SLOTS_PER_DAY;
+    private static final int WORDS = (SLOTS + 63) / 64;
+    private static final int BYTES = SLOTS / 8;
+    private static final OpeningHoursMask ALWAYS_OPEN = alwaysOpen();
+
+    private final long[] bits;
+
+    private OpeningHoursMask(long[] bits) {
+        this.bits = bits;
+    }
+
+    public static OpeningHoursMask of(OpeningHours openingHours) {
+        if (openingHours.alwaysOpen()) {
+            return ALWAYS_OPEN;
+        }
+        OpeningHours.Week week = openingHours.opened();
+        long[] bits = new long[WORDS];
+        List<OpeningTime> days = List.of(week.monday(), week.tuesday(), week.wednesday(),
+                week.thursday(), week.friday(), week.saturday(), week.sunday());
+        for (int day = 0; day < days.size(); day++) {
+            int offset = day * SLOTS_PER_DAY;
+            switch (days.get(day)) {
+                case Opened24h ignored -> set(bits, offset, offset + SLOTS_PER_DAY);
+                case Closed24h ignored -> {
+                }
+                case OpenTime time -> time.time().forEach(span -> {
+                    int from = offset + startSlot(span.open());
+                    set(bits, from, from + length(span));
+                });
+            }
+        }
+        return new OpeningHoursMask(bits);
+    }
+
+    public static OpeningHoursMask fromBytes(byte[] bytes) {
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Opening hours mask must have " + BYTES + " bytes, got " + bytes.length);
+        }
+        long[] bits = new long[WORDS];
+        for (int i = 0; i < BYTES; i++) {
+            bits[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) << 3);
+        }
+        return new OpeningHoursMask(bits);
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        for (int i = 0; i < BYTES; i++) {
+            bytes[i] = (byte) (bits[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+
+    boolean isOpenAt(ZonedDateTime time) {
+        return isSet(slotOf(time));
+    }
+
+    public static int slotOf(ZonedDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * SLOTS_PER_DAY + time.getHour() * 4 + time.getMinute() / 15;
+    }
+
+    OpeningHours toOpeningHours() {
+        if (equals(ALWAYS_OPEN)) {
+            return OpeningHours.alwaysOpened();
+        }
+        OpeningTime[] days = new OpeningTime[7];
+        for (int day = 0; day < 7; day++) {
+            days[day] = day(day * SLOTS_PER_DAY);
+        }
+        return OpeningHours.openAt(days[0], days[1], days[2], days[3], days[4], days[5], days[6]);
+    }
+
+    private OpeningTime day(int offset) {
+        List<TimeSpan> spans = new ArrayList<>();
+        int slot = 0;
+        while (slot < SLOTS_PER_DAY) {
+            if (!isSet(offset + slot)) {
+                slot++;
+                continue;
+            }
+            int start = slot;
+            while (slot < SLOTS_PER_DAY && isSet(offset + slot)) {
+                slot++;
+            }
+            spans.add(new TimeSpan(timeOf(start), timeOf(slot)));
+        }
+        if (spans.isEmpty()) {
+            return new Closed24h();
+        }
+        if (spans.size() == 1 && spans.get(0).open().equals(LocalTime.MIDNIGHT) && spans.get(0).close().equals(LocalTime.MIDNIGHT)) {
+            return new Opened24h();
+        }
+        return new OpenTime(spans);
+    }
+
+    private boolean isSet(int slot) {
+        return (bits[slot >>> 6] & (1L << (slot & 63))) != 0;
+    }
+
+    private static void set(long[] bits, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            int wrapped = slot % SLOTS;
+            bits[wrapped >>> 6] |= 1L << (wrapped & 63);
+        }
+    }
+
+    private static int startSlot(LocalTime open) {
+        return open.getHour() * 4 + open.getMinute() / 15;
+    }
+
+    private static int length(TimeSpan span) {
+        int start = startSlot(span.open());
+        int end = span.close().equals(LocalTime.MIDNIGHT)
+                ? SLOTS_PER_DAY
+                : span.close().getHour() * 4 + (span.close().getMinute() + 14) / 15;
+        return end > start ? end - start : end + SLOTS_PER_DAY - start;
+    }
+
+    private static LocalTime timeOf(int slot) {
+        return slot == SLOTS_PER_DAY ? LocalTime.MIDNIGHT : LocalTime.of(slot / 4, (slot % 4) * 15);
+    }
+
+    private static OpeningHoursMask alwaysOpen() {
+        long[] bits = new long[WORDS];
+        set(bits, 0, SLOTS);
+        return new OpeningHoursMask(bits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof OpeningHoursMask other && Arrays.equals(bits, other.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+}
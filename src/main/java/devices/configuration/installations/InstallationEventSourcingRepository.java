@@ -2,20 +2,19 @@ package devices.configuration.installations;
 
 import devices.configuration.tools.EventTypes;
 import devices.configuration.tools.LegacyDomainEvent;
+import devices.configuration.tools.Outbox;
+import devices.configuration.tools.PersistableEntity;
+import devices.configuration.tools.TimeOrderedIds;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Type;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 
-import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.Id;
-import javax.persistence.Table;
+import javax.persistence.*;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
@@ -27,7 +26,7 @@ import java.util.UUID;
 class InstallationEventSourcingRepository implements InstallationRepository {
 
     private final EventRepository repository;
-    private final ApplicationEventPublisher publisher;
+    private final Outbox outbox;
 
 
     @Override
@@ -58,16 +57,16 @@ class InstallationEventSourcingRepository implements InstallationRepository {
 
     @Override
     public void save(InstallationProcess process) {
-        process.events.forEach(event -> {
-            repository.save(new InstallationEventEntity(
-                    process.orderId,
-                    process.deviceId,
-                    EventTypes.of(event),
-                    event));
-            publisher.publishEvent(event);
-        });
+        repository.saveAll(process.events.stream()
+                .map(event -> new InstallationEventEntity(
+                        process.orderId,
+                        process.deviceId,
+                        EventTypes.of(event),
+                        event))
+                .toList());
+        outbox.publishAll(process.orderId, process.events);
         if (!process.events.isEmpty()) {
-            publisher.publishEvent(process.asState());
+            outbox.publish(process.orderId, process.asState());
         }
         process.events.clear();
     }
@@ -91,7 +90,7 @@ class InstallationEventSourcingRepository implements InstallationRepository {
     @Entity
     @Table(name = "installation_events")
     @NoArgsConstructor
-    static class InstallationEventEntity {
+    static class InstallationEventEntity extends PersistableEntity<UUID> {
         @Id
         private UUID id;
         private String orderId;
@@ -103,7 +102,7 @@ class InstallationEventSourcingRepository implements InstallationRepository {
         private DomainEvent event;
 
         InstallationEventEntity(String orderId, String deviceId, EventTypes.Type type, DomainEvent event) {
-            this.id = UUID.randomUUID();
+            this.id = TimeOrderedIds.next();
             this.orderId = orderId;
             this.deviceId = deviceId;
             this.type = type.type();
@@ -1,16 +1,28 @@
 package devices.configuration.intervals;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import devices.configuration.protocols.BootNotification;
 
 import java.time.Duration;
 import java.util.*;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
-record IntervalRules(
-        List<DeviceIdRule> byIds,
-        List<ModelRule> byModel,
-        int defSeconds) {
+final class IntervalRules {
+
+    private final List<DeviceIdRule> byIds;
+    private final List<ModelRule> byModel;
+    private final int defSeconds;
+    @JsonIgnore
+    private final IntervalRulesIndex index;
+
+    @JsonCreator
+    IntervalRules(List<DeviceIdRule> byIds, List<ModelRule> byModel, int defSeconds) {
+        this.byIds = byIds == null ? List.of() : List.copyOf(byIds);
+        this.byModel = byModel == null ? List.of() : List.copyOf(byModel);
+        this.defSeconds = defSeconds;
+        this.index = IntervalRulesIndex.of(this.byIds, this.byModel);
+    }
 
     static IntervalRules defaultRules() {
         return new IntervalRules(List.of(), List.of(), 1800);
@@ -28,13 +40,29 @@ record IntervalRules(
         return new ModelRule(seconds, vendor, model, firmware);
     }
 
+    List<DeviceIdRule> byIds() {
+        return byIds;
+    }
+
+    List<ModelRule> byModel() {
+        return byModel;
+    }
+
+    int defSeconds() {
+        return defSeconds;
+    }
+
     Duration calculateInterval(BootNotification boot) {
-        return Duration.ofSeconds(Stream.of(byIds, byModel)
-                .flatMap(Collection::stream)
-                .filter(rule -> rule.matches(boot))
-                .findFirst()
-                .map(Rule::seconds)
-                .orElse(defSeconds));
+        return Duration.ofSeconds(index.secondsFor(boot, defSeconds));
+    }
+
+    Optional<Duration> calculateIntervalByDeviceId(BootNotification boot) {
+        return Optional.ofNullable(index.secondsForDeviceId(boot))
+                .map(Duration::ofSeconds);
+    }
+
+    Duration calculateIntervalByModel(BootNotification boot) {
+        return Duration.ofSeconds(index.secondsForModel(boot, defSeconds));
     }
 
     interface Rule {
@@ -1,26 +1,77 @@
 package devices.configuration.intervals;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import devices.configuration.tools.DatabaseNotifications;
 import devices.configuration.tools.FeatureConfiguration;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 class IntervalRulesDocumentRepository implements IntervalRulesRepository {
 
     public static final String CONFIG_NAME = "IntervalRules";
+    static final String CHANNEL = "interval_rules";
+
     private final FeatureConfiguration repository;
+    private final DatabaseNotifications notifications;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile IntervalRulesSnapshot cached;
+
+    @PostConstruct
+    void listenForChanges() {
+        notifications.listen(CHANNEL, changed -> invalidate());
+    }
 
     @Override
     public IntervalRules get() {
-        return repository.get(CONFIG_NAME)
-                .as(IntervalRules.class)
-                .orElse(IntervalRules.defaultRules());
+        return current().rules();
     }
 
     public JsonNode save(IntervalRules configuration) {
-        return repository.save(CONFIG_NAME, configuration)
+        JsonNode saved = repository.save(CONFIG_NAME, configuration)
                 .raw();
+        invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+        }
+        notifications.notify(CHANNEL, CONFIG_NAME);
+        return saved;
+    }
+
+    void invalidate() {
+        invalidations.incrementAndGet();
+        cached = null;
+    }
+
+    @Override
+    public IntervalRulesSnapshot current() {
+        IntervalRulesSnapshot current = cached;
+        return current != null ? current : reload();
+    }
+
+    private synchronized IntervalRulesSnapshot reload() {
+        IntervalRulesSnapshot current = cached;
+        if (current == null) {
+            long seen = invalidations.get();
+            current = new IntervalRulesSnapshot(versions.incrementAndGet(), repository.get(CONFIG_NAME)
+                    .as(IntervalRules.class)
+                    .orElse(IntervalRules.defaultRules()));
+            if (invalidations.get() == seen) {
+                cached = current;
+            }
+        }
+        return current;
     }
 }
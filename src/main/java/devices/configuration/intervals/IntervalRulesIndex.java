@@ -0,0 +1,118 @@
+package devices.configuration.intervals;
+
+import devices.configuration.intervals.IntervalRules.DeviceIdRule;
+import devices.configuration.intervals.IntervalRules.ModelRule;
+import devices.configuration.protocols.BootNotification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+final class IntervalRulesIndex {
+
+    private static final String META_CHARACTERS = "\\[](){}.*+?^$|";
+    private static final String OPTIONAL_QUANTIFIERS = "?*{";
+
+    private final Map<String, Integer> byDeviceId;
+    private final Map<String, CompiledRule[]> byVendor;
+
+    private IntervalRulesIndex(Map<String, Integer> byDeviceId, Map<String, CompiledRule[]> byVendor) {
+        this.byDeviceId = byDeviceId;
+        this.byVendor = byVendor;
+    }
+
+    static IntervalRulesIndex of(List<DeviceIdRule> byIds, List<ModelRule> byModel) {
+        Map<String, Integer> byDeviceId = new HashMap<>();
+        for (DeviceIdRule rule : byIds) {
+            for (String deviceId : rule.devices()) {
+                byDeviceId.putIfAbsent(deviceId, rule.seconds());
+            }
+        }
+        Map<String, List<CompiledRule>> byVendor = new HashMap<>();
+        for (ModelRule rule : byModel) {
+            byVendor.computeIfAbsent(rule.vendor(), vendor -> new ArrayList<>())
+                    .add(CompiledRule.of(rule));
+        }
+        Map<String, CompiledRule[]> compiled = new HashMap<>();
+        byVendor.forEach((vendor, rules) -> compiled.put(vendor, rules.toArray(CompiledRule[]::new)));
+        return new IntervalRulesIndex(byDeviceId, compiled);
+    }
+
+    int secondsFor(BootNotification boot, int defSeconds) {
+        Integer byId = secondsForDeviceId(boot);
+        if (byId != null) {
+            return byId;
+        }
+        return secondsForModel(boot, defSeconds);
+    }
+
+    Integer secondsForDeviceId(BootNotification boot) {
+        return byDeviceId.get(boot.deviceId());
+    }
+
+    int secondsForModel(BootNotification boot, int defSeconds) {
+        CompiledRule[] rules = byVendor.get(boot.vendor());
+        if (rules != null) {
+            for (CompiledRule rule : rules) {
+                if (rule.matches(boot)) {
+                    return rule.seconds();
+                }
+            }
+        }
+        return defSeconds;
+    }
+
+    private record CompiledRule(int seconds, Predicate<String> model, Predicate<String> firmware) {
+
+        static CompiledRule of(ModelRule rule) {
+            return new CompiledRule(
+                    rule.seconds(),
+                    compile(rule.model()),
+                    rule.firmware() == null ? null : compile(rule.firmware())
+            );
+        }
+
+        boolean matches(BootNotification boot) {
+            return model.test(boot.model())
+                   && (firmware == null || firmware.test(boot.firmware()));
+        }
+    }
+
+    static Predicate<String> compile(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (pattern.flags() != 0) {
+            return text -> text != null && pattern.matcher(text).matches();
+        }
+        int firstMeta = firstMetaCharacter(regex);
+        if (firstMeta < 0) {
+            return regex::equals;
+        }
+        String prefix = literalPrefix(regex, firstMeta);
+        if (prefix.isEmpty()) {
+            return text -> text != null && pattern.matcher(text).matches();
+        }
+        return text -> text != null && text.startsWith(prefix) && pattern.matcher(text).matches();
+    }
+
+    private static int firstMetaCharacter(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            if (META_CHARACTERS.indexOf(regex.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String literalPrefix(String regex, int firstMeta) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+        int end = OPTIONAL_QUANTIFIERS.indexOf(regex.charAt(firstMeta)) >= 0
+                ? firstMeta - 1
+                : firstMeta;
+        return end > 0 ? regex.substring(0, end) : "";
+    }
+}
@@ -2,4 +2,6 @@ package devices.configuration.intervals;
 
 interface IntervalRulesRepository {
     IntervalRules get();
+
+    IntervalRulesSnapshot current();
 }
@@ -0,0 +1,36 @@
+package devices.configuration.intervals;
+
+import devices.configuration.protocols.BootNotification;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Rules together with the version they were loaded as, so both come from the same read.
+ */
+public final class IntervalRulesSnapshot {
+
+    private final long version;
+    private final IntervalRules rules;
+
+    IntervalRulesSnapshot(long version, IntervalRules rules) {
+        this.version = version;
+        this.rules = rules;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Optional<Duration> byDeviceId(BootNotification boot) {
+        return rules.calculateIntervalByDeviceId(boot);
+    }
+
+    public Duration byModel(BootNotification boot) {
+        return rules.calculateIntervalByModel(boot);
+    }
+
+    IntervalRules rules() {
+        return rules;
+    }
+}
@@ -3,6 +3,7 @@ package devices.configuration.intervals;
 import devices.configuration.protocols.BootNotification;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
@@ -17,4 +18,9 @@ public class IntervalsService {
         IntervalRules rules = repository.get();
         return rules.calculateInterval(boot);
     }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public IntervalRulesSnapshot currentRules() {
+        return repository.current();
+    }
 }
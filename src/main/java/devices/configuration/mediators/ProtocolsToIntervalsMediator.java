@@ -1,21 +1,59 @@
 package devices.configuration.mediators;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import devices.configuration.intervals.IntervalRulesSnapshot;
 import devices.configuration.intervals.IntervalsService;
 import devices.configuration.protocols.BootNotification;
 import devices.configuration.protocols.HeartbeatInterval;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.Optional;
 
 @Component
-@AllArgsConstructor
 public class ProtocolsToIntervalsMediator implements HeartbeatInterval {
 
     private final IntervalsService intervals;
+    private final Cache<ModelKey, Duration> byModel;
+    private volatile long rulesVersion;
+
+    public ProtocolsToIntervalsMediator(IntervalsService intervals,
+                                        MeterRegistry registry,
+                                        @Value("${intervals.memo.size:10000}") long size) {
+        this.intervals = intervals;
+        this.byModel = Caffeine.newBuilder()
+                .maximumSize(size)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, byModel, "heartbeatIntervals");
+    }
 
     @Override
     public Duration heartbeatIntervalFor(BootNotification boot) {
-        return intervals.calculateInterval(boot);
+        IntervalRulesSnapshot rules = intervals.currentRules();
+        Optional<Duration> byDeviceId = rules.byDeviceId(boot);
+        if (byDeviceId.isPresent()) {
+            return byDeviceId.get();
+        }
+        if (rules.version() != rulesVersion) {
+            rulesVersion = rules.version();
+            byModel.invalidateAll();
+        }
+        return byModel.get(
+                new ModelKey(rules.version(), boot.vendor(), boot.model(), boot.firmware()),
+                key -> rules.byModel(boot)
+        );
+    }
+
+    @Override
+    public long rulesVersion() {
+        return intervals.currentRules().version();
+    }
+
+    private record ModelKey(long rulesVersion, String vendor, String model, String firmware) {
     }
 }
@@ -1,15 +1,19 @@
 package devices.configuration.protocols;
 
-
+import devices.configuration.tools.Outbox;
 import lombok.AllArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 @Service
 @Transactional
@@ -18,18 +22,83 @@ public class CommunicationService {
     private final Clock clock;
     private final HeartbeatInterval intervals;
     private final KnownDevices devices;
-    private final ApplicationEventPublisher publisher;
+    private final Outbox outbox;
+    private final LastSeenProjection lastSeen;
 
     public BootResponse handleBoot(BootNotification boot) {
+        return handleBoot(boot, intervals.heartbeatIntervalFor(boot));
+    }
+
+    public BootResponse handleBoot(OcppConnection connection, BootNotification boot) {
+        return handleBoot(boot, connection.interval(boot, intervals));
+    }
+
+    private BootResponse handleBoot(BootNotification boot, Duration interval) {
         BootResponse response = new BootResponse(
                 Instant.now(clock),
-                intervals.heartbeatIntervalFor(boot),
+                interval,
                 devices.get(boot.deviceId())
         );
-        publisher.publishEvent(boot);
+        lastSeen.booted(boot.deviceId(), response.serverTime(), response.interval());
+        outbox.publish(boot.deviceId(), boot);
         return response;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Instant handleHeartbeat(String deviceId) {
+        Instant now = Instant.now(clock);
+        lastSeen.heartbeat(deviceId, now);
+        return now;
+    }
+
+    /**
+     * Heartbeat on open connection also refreshes the interval expected by liveness, when interval rules changed since boot.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Instant handleHeartbeat(OcppConnection connection) {
+        Instant now = Instant.now(clock);
+        lastSeen.heartbeat(connection.getDeviceId(), now, connection.interval(intervals).orElse(null));
+        return now;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<LastSeenProjection.OfflineDevice> offlineDevices(int limit) {
+        return lastSeen.offline(Instant.now(clock), limit);
+    }
+
+    public List<BootResponse> handleBoots(List<BootNotification> boots) {
+        Instant now = Instant.now(clock);
+        Map<String, KnownDevices.State> states = devices.get(boots.stream()
+                .map(BootNotification::deviceId)
+                .toList());
+        List<BootResponse> responses = boots.stream()
+                .map(boot -> new BootResponse(
+                        now,
+                        intervals.heartbeatIntervalFor(boot),
+                        states.get(boot.deviceId())
+                ))
+                .toList();
+        for (int i = 0; i < boots.size(); i++) {
+            lastSeen.booted(boots.get(i).deviceId(), now, responses.get(i).interval());
+        }
+        outbox.publishAll(boots, BootNotification::deviceId);
+        return responses;
+    }
+
+    /**
+     * Batch of protocol specific requests answered in the same order, each with response to its own boot.
+     */
+    public <R, S> List<S> handleBoots(List<R> requests,
+                                      Function<R, BootNotification> boot,
+                                      BiFunction<R, BootResponse, S> response) {
+        List<BootResponse> responses = handleBoots(requests.stream()
+                .map(boot)
+                .toList());
+        return IntStream.range(0, requests.size())
+                .mapToObj(i -> response.apply(requests.get(i), responses.get(i)))
+                .toList();
+    }
+
     public record BootResponse(Instant serverTime, Duration interval, KnownDevices.State state) {
 
         public <T> T map(Function<BootResponse, T> func) {
@@ -0,0 +1,150 @@
+package devices.configuration.protocols;
+
+import devices.configuration.protocols.KnownDevices.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Open addressing hash table of device states sized for millions of devices.
+ * Ids are kept as length prefixed UTF-8 bytes in one growing arena, a slot holds only the arena offset
+ * and a state byte, so an entry costs its id length plus a few bytes instead of a map node, a String and its array.
+ * Reads share a lock, writes and growing are exclusive.
+ */
+final class DeviceStateTable {
+
+    private static final int EMPTY = -1;
+    private static final State[] STATES = State.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] offsets;
+    private byte[] states;
+    private byte[] arena;
+    private int arenaSize;
+    private int size;
+
+    DeviceStateTable() {
+        this(1024);
+    }
+
+    DeviceStateTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        offsets = new int[capacity];
+        Arrays.fill(offsets, EMPTY);
+        states = new byte[capacity];
+        arena = new byte[Math.max(1024, expected * 24)];
+    }
+
+    State get(String deviceId) {
+        byte[] key = deviceId.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int slot = find(key);
+            return offsets[slot] == EMPTY ? State.UNKNOWN : STATES[states[slot]];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(String deviceId, State state) {
+        put(deviceId, state, true);
+    }
+
+    void putIfAbsent(String deviceId, State state) {
+        put(deviceId, state, false);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(String deviceId, State state, boolean replace) {
+        byte[] key = deviceId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > 0xFFFF) {
+            throw new IllegalArgumentException("Device id longer than " + 0xFFFF + " bytes");
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = find(key);
+            if (offsets[slot] == EMPTY) {
+                offsets[slot] = append(key);
+                states[slot] = (byte) state.ordinal();
+                if (++size * 2 > offsets.length) {
+                    grow();
+                }
+            } else if (replace) {
+                states[slot] = (byte) state.ordinal();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int find(byte[] key) {
+        int mask = offsets.length - 1;
+        int slot = hash(key, 0, key.length) & mask;
+        while (offsets[slot] != EMPTY && !matches(offsets[slot], key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean matches(int offset, byte[] key) {
+        int length = length(offset);
+        return length == key.length
+               && Arrays.equals(arena, offset + 2, offset + 2 + length, key, 0, length);
+    }
+
+    private int append(byte[] key) {
+        if (arenaSize + 2 + key.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + 2 + key.length));
+        }
+        int offset = arenaSize;
+        arena[offset] = (byte) (key.length >>> 8);
+        arena[offset + 1] = (byte) key.length;
+        System.arraycopy(key, 0, arena, offset + 2, key.length);
+        arenaSize += 2 + key.length;
+        return offset;
+    }
+
+    private void grow() {
+        int[] oldOffsets = offsets;
+        byte[] oldStates = states;
+        offsets = new int[oldOffsets.length * 2];
+        Arrays.fill(offsets, EMPTY);
+        states = new byte[offsets.length];
+        int mask = offsets.length - 1;
+        for (int i = 0; i < oldOffsets.length; i++) {
+            int offset = oldOffsets[i];
+            if (offset != EMPTY) {
+                int slot = hash(arena, offset + 2, length(offset)) & mask;
+                while (offsets[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                offsets[slot] = offset;
+                states[slot] = oldStates[i];
+            }
+        }
+    }
+
+    private int length(int offset) {
+        return (arena[offset] & 0xFF) << 8 | arena[offset + 1] & 0xFF;
+    }
+
+    private static int hash(byte[] bytes, int from, int length) {
+        int hash = 0x9747b28c;
+        for (int i = from; i < from + length; i++) {
+            hash = (hash ^ bytes[i]) * 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        return hash ^ hash >>> 13;
+    }
+}
@@ -4,4 +4,6 @@ import java.time.Duration;
 
 public interface HeartbeatInterval {
     Duration heartbeatIntervalFor(BootNotification boot);
+
+    long rulesVersion();
 }
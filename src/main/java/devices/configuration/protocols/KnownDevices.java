@@ -1,7 +1,18 @@
 package devices.configuration.protocols;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public interface KnownDevices {
     enum State {UNKNOWN, IN_INSTALLATION, EXISTING}
 
     State get(String deviceId);
+
+    default Map<String, State> get(Collection<String> deviceIds) {
+        return deviceIds.stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), this::get));
+    }
 }
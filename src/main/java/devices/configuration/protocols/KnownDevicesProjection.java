@@ -3,45 +3,156 @@ package devices.configuration.protocols;
 import devices.configuration.device.DeviceConfiguration;
 import devices.configuration.installations.DomainEvent.DeviceAssigned;
 import devices.configuration.installations.DomainEvent.InstallationCompleted;
-import lombok.AllArgsConstructor;
+import devices.configuration.tools.DatabaseNotifications;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.Entity;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static javax.persistence.EnumType.STRING;
 
+@Slf4j
 @Primary
 @Component
-@Transactional
-@AllArgsConstructor
 class KnownDevicesProjection implements KnownDevices {
+
+    static final String CHANNEL = "known_devices";
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
     private final JpaRepository repository;
+    private final JdbcTemplate jdbc;
+    private final DatabaseNotifications notifications;
+    private volatile DeviceStateTable states;
+    private volatile DeviceStateTable loading;
+    private final AtomicInteger reloads = new AtomicInteger();
+
+    KnownDevicesProjection(JpaRepository repository, JdbcTemplate jdbc, DatabaseNotifications notifications) {
+        this.repository = repository;
+        this.jdbc = jdbc;
+        this.notifications = notifications;
+    }
+
+    @PostConstruct
+    void listenForChanges() {
+        notifications.listen(CHANNEL, changed -> {
+            if (changed == null) {
+                reload();
+            } else {
+                int separator = changed.lastIndexOf(':');
+                apply(changed.substring(0, separator), State.valueOf(changed.substring(separator + 1)));
+            }
+        });
+    }
+
+    /**
+     * Reloads in background, so notifications keep being applied on top of the reload meanwhile.
+     * Requests coming during a reload are coalesced into one more reload after it.
+     */
+    void reload() {
+        if (reloads.getAndIncrement() == 0) {
+            Thread.ofVirtual().name("known-devices-reload").start(() -> {
+                int requested;
+                do {
+                    requested = reloads.get();
+                    try {
+                        load();
+                    } catch (RuntimeException e) {
+                        log.error("Reloading known devices failed", e);
+                    }
+                } while (reloads.addAndGet(-requested) > 0);
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        DeviceStateTable loaded = new DeviceStateTable(countKnown());
+        loading = loaded;
+        String after = "";
+        List<Map.Entry<String, State>> page;
+        do {
+            page = jdbc.query("""
+                            select device_id, state
+                            from known_device
+                            where device_id > ?
+                            order by device_id
+                            limit ?""",
+                    (rs, i) -> Map.entry(rs.getString(1), State.valueOf(rs.getString(2))),
+                    after, LOAD_PAGE_SIZE);
+            page.forEach(entry -> loaded.putIfAbsent(entry.getKey(), entry.getValue()));
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getKey();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        states = loaded;
+        loading = null;
+        log.info("Loaded {} known devices", loaded.size());
+    }
+
+    private int countKnown() {
+        Long estimate = jdbc.queryForObject(
+                "select greatest(reltuples, 0)::bigint from pg_class where oid = 'known_device'::regclass", Long.class);
+        return (int) Math.min(estimate == null ? 0 : estimate, Integer.MAX_VALUE / 48);
+    }
 
     @Override
     public State get(String deviceId) {
-        return repository.findById(deviceId)
-                .map(KnownDeviceEntity::state)
-                .orElse(State.UNKNOWN);
+        DeviceStateTable current = states;
+        if (current == null) {
+            return repository.findById(deviceId)
+                    .map(KnownDeviceEntity::state)
+                    .orElse(State.UNKNOWN);
+        }
+        return current.get(deviceId);
+    }
+
+    @Override
+    public Map<String, State> get(Collection<String> deviceIds) {
+        DeviceStateTable current = states;
+        Map<String, State> result = new HashMap<>();
+        deviceIds.forEach(deviceId -> result.put(deviceId, State.UNKNOWN));
+        if (current == null) {
+            repository.findAllById(deviceIds)
+                    .forEach(entity -> result.put(entity.deviceId, entity.state()));
+        } else {
+            result.replaceAll((deviceId, unknown) -> current.get(deviceId));
+        }
+        return result;
     }
 
+    @Transactional
     @EventListener
     public void handleInstallationStart(DeviceAssigned event) {
         put(event.deviceId(), State.IN_INSTALLATION);
     }
 
+    @Transactional
     @EventListener
     public void handleInstallationFinish(InstallationCompleted event) {
         put(event.deviceId(), State.EXISTING);
     }
 
+    @Transactional
     @EventListener
     public void handleDeInstallation(DeviceConfiguration event) {
         if (event.ownership().isUnowned()) {
@@ -50,13 +161,38 @@ class KnownDevicesProjection implements KnownDevices {
     }
 
     private void put(String deviceId, State state) {
-        repository.save(repository.findById(deviceId)
-                .orElseGet(() -> new KnownDeviceEntity(deviceId))
-                .state(state)
-        );
+        repository.upsert(deviceId, state.name());
+        notifications.notify(CHANNEL, deviceId + ":" + state);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(deviceId, state);
+                }
+            });
+        } else {
+            apply(deviceId, state);
+        }
+    }
+
+    private void apply(String deviceId, State state) {
+        DeviceStateTable current = states;
+        if (current != null) {
+            current.put(deviceId, state);
+        }
+        DeviceStateTable pending = loading;
+        if (pending != null) {
+            pending.put(deviceId, state);
+        }
     }
 
     interface JpaRepository extends CrudRepository<KnownDeviceEntity, String> {
+        @Modifying
+        @Query(value = """
+                insert into known_device (device_id, state)
+                values (:deviceId, :state)
+                on conflict (device_id) do update set state = excluded.state""", nativeQuery = true)
+        void upsert(String deviceId, String state);
     }
 
     @Entity
@@ -0,0 +1,143 @@
+package devices.configuration.protocols;
+
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liveness of devices, heartbeats are only kept in memory and flushed to database in batches.
+ * Offline devices are queried from database, so every node answers with heartbeats received by all nodes,
+ * delayed at most by the flush delay of other nodes.
+ */
+@Component
+public class LastSeenProjection {
+
+    private final JdbcTemplate jdbc;
+    private final Duration defaultInterval;
+    private final int missedHeartbeats;
+    private final int batch;
+    private final Map<String, LastSeen> pending = new ConcurrentHashMap<>();
+
+    LastSeenProjection(JdbcTemplate jdbc,
+                       @Value("${protocols.last-seen.default-interval}") Duration defaultInterval,
+                       @Value("${protocols.last-seen.missed-heartbeats}") int missedHeartbeats,
+                       @Value("${protocols.last-seen.batch}") int batch) {
+        this.jdbc = jdbc;
+        this.defaultInterval = defaultInterval;
+        this.missedHeartbeats = missedHeartbeats;
+        this.batch = batch;
+    }
+
+    public record LastSeen(Instant time, Duration interval) {
+    }
+
+    public record OfflineDevice(String deviceId, Instant lastSeen) {
+    }
+
+    void booted(String deviceId, Instant time, Duration interval) {
+        pending.put(deviceId, new LastSeen(time, interval));
+    }
+
+    void heartbeat(String deviceId, Instant time) {
+        heartbeat(deviceId, time, null);
+    }
+
+    void heartbeat(String deviceId, Instant time, Duration interval) {
+        pending.compute(deviceId, (id, last) -> new LastSeen(time,
+                interval != null ? interval : last == null ? null : last.interval()));
+    }
+
+    /**
+     * Walks the offline_after index from the longest silent devices, so only about {@code limit} rows are read.
+     * Pending heartbeats are not flushed here, the answer lags behind by at most the flush delay.
+     */
+    public List<OfflineDevice> offline(Instant now, int limit) {
+        return jdbc.query("""
+                        select device_id, last_seen
+                        from device_last_seen
+                        where offline_after < ?
+                        order by offline_after
+                        limit ?""",
+                (rs, i) -> new OfflineDevice(rs.getString(1), rs.getTimestamp(2).toInstant()),
+                Timestamp.from(now), limit);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${protocols.last-seen.flush-delay}")
+    public void flush() {
+        List<Map.Entry<String, LastSeen>> rows = new ArrayList<>(batch);
+        for (Map.Entry<String, LastSeen> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                rows.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+            if (rows.size() == batch) {
+                write(rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            write(rows);
+        }
+    }
+
+    private void write(List<Map.Entry<String, LastSeen>> rows) {
+        try {
+            upsert(rows);
+        } catch (RuntimeException e) {
+            rows.forEach(row -> pending.merge(row.getKey(), row.getValue(),
+                    (newer, failed) -> newer.time().isBefore(failed.time()) ? failed : newer));
+            throw e;
+        }
+    }
+
+    private void upsert(List<Map.Entry<String, LastSeen>> rows) {
+        jdbc.batchUpdate("""
+                insert into device_last_seen (device_id, last_seen, interval_seconds, offline_after)
+                values (?, ?, ?, ?)
+                on conflict (device_id) do update
+                set last_seen = greatest(device_last_seen.last_seen, excluded.last_seen),
+                    interval_seconds = coalesce(excluded.interval_seconds, device_last_seen.interval_seconds),
+                    offline_after = greatest(device_last_seen.last_seen, excluded.last_seen) + make_interval(
+                            secs => coalesce(excluded.interval_seconds, device_last_seen.interval_seconds, ?) * ?)""",
+                rows.stream()
+                        .map(row -> new Object[]{
+                                row.getKey(),
+                                Timestamp.from(row.getValue().time()),
+                                row.getValue().interval() == null ? null : (int) row.getValue().interval().toSeconds(),
+                                Timestamp.from(offlineAfter(row.getValue())),
+                                defaultInterval.toSeconds(),
+                                missedHeartbeats
+                        })
+                        .toList());
+    }
+
+    private Instant offlineAfter(LastSeen lastSeen) {
+        Duration interval = lastSeen.interval() == null ? defaultInterval : lastSeen.interval();
+        return lastSeen.time().plus(interval.multipliedBy(missedHeartbeats));
+    }
+
+    @Entity
+    @Table(name = "device_last_seen")
+    @NoArgsConstructor
+    static class DeviceLastSeenEntity {
+        @Id
+        private String deviceId;
+        private Instant lastSeen;
+        private Integer intervalSeconds;
+        private Instant offlineAfter;
+    }
+}
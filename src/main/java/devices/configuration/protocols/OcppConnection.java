@@ -0,0 +1,41 @@
+package devices.configuration.protocols;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * State of single long-lived charger connection, kept in WebSocket session for the whole connection lifetime.
+ * Heartbeat interval computed on boot is kept until the device boots as a different model or interval rules change.
+ */
+public class OcppConnection {
+
+    @Getter
+    private final String deviceId;
+    private volatile Interval interval;
+
+    OcppConnection(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    Duration interval(BootNotification boot, HeartbeatInterval intervals) {
+        long rulesVersion = intervals.rulesVersion();
+        Interval current = interval;
+        if (current == null || current.rulesVersion() != rulesVersion || !current.boot().equals(boot)) {
+            current = new Interval(boot, rulesVersion, intervals.heartbeatIntervalFor(boot));
+            interval = current;
+        }
+        return current.duration();
+    }
+
+    Optional<Duration> interval(HeartbeatInterval intervals) {
+        Interval current = interval;
+        return current == null
+                ? Optional.empty()
+                : Optional.of(interval(current.boot(), intervals));
+    }
+
+    private record Interval(BootNotification boot, long rulesVersion, Duration duration) {
+    }
+}
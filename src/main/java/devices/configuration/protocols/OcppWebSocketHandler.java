@@ -0,0 +1,124 @@
+package devices.configuration.protocols;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static devices.configuration.tools.JsonConfiguration.OBJECT_MAPPER;
+
+/**
+ * OCPP-J framing: {@code [2, id, action, payload]} calls answered with {@code [3, id, payload]} results
+ * or {@code [4, id, errorCode, description, details]} errors, on a connection opened at {@code <path>/<deviceId>}.
+ */
+@Slf4j
+public abstract class OcppWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable, HandshakeInterceptor {
+
+    private static final int CALL = 2;
+    private static final int CALL_RESULT = 3;
+    private static final int CALL_ERROR = 4;
+    private static final String CONNECTION = OcppConnection.class.getName();
+
+    private final String path;
+    private final String subProtocol;
+
+    protected OcppWebSocketHandler(String path, String subProtocol) {
+        this.path = path;
+        this.subProtocol = subProtocol;
+    }
+
+    public String path() {
+        return path + "/*";
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(subProtocol);
+    }
+
+    protected abstract Object call(OcppConnection connection, String action, JsonNode payload) throws IOException;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler handler, Map<String, Object> attributes) {
+        String uri = request.getURI().getRawPath();
+        String deviceId = UriUtils.decode(uri.substring(uri.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+        if (deviceId.isBlank()) {
+            return false;
+        }
+        attributes.put(CONNECTION, new OcppConnection(deviceId));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler handler, Exception exception) {
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        JsonNode frame;
+        try {
+            frame = OBJECT_MAPPER.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            session.sendMessage(error("", "FormationViolation", "Malformed OCPP-J frame"));
+            return;
+        }
+        if (!frame.isArray() || frame.size() < 3 || !frame.get(1).isTextual()) {
+            session.sendMessage(error("", "FormationViolation", "Malformed OCPP-J frame"));
+            return;
+        }
+        String id = frame.get(1).asText();
+        if (frame.get(0).asInt() != CALL) {
+            return;
+        }
+        if (frame.size() != 4) {
+            session.sendMessage(error(id, "FormationViolation", "CALL requires action and payload"));
+            return;
+        }
+        OcppConnection connection = (OcppConnection) session.getAttributes().get(CONNECTION);
+        String action = frame.get(2).asText();
+        TextMessage reply;
+        try {
+            Object result = call(connection, action, frame.get(3));
+            reply = result == null
+                    ? error(id, "NotImplemented", "Action " + action + " is not supported")
+                    : result(id, result);
+        } catch (IOException | IllegalArgumentException e) {
+            reply = error(id, "FormationViolation", "Invalid payload of " + action);
+        } catch (RuntimeException e) {
+            log.error("Handling {} from {} failed", action, connection.getDeviceId(), e);
+            reply = error(id, "InternalError", "Handling of " + action + " failed");
+        }
+        session.sendMessage(reply);
+    }
+
+    private static TextMessage result(String id, Object payload) throws IOException {
+        ArrayNode frame = OBJECT_MAPPER.createArrayNode()
+                .add(CALL_RESULT)
+                .add(id);
+        frame.add(OBJECT_MAPPER.valueToTree(payload));
+        return new TextMessage(OBJECT_MAPPER.writeValueAsString(frame));
+    }
+
+    private static TextMessage error(String id, String code, String description) throws IOException {
+        ArrayNode frame = OBJECT_MAPPER.createArrayNode()
+                .add(CALL_ERROR)
+                .add(id)
+                .add(code)
+                .add(description);
+        frame.addObject();
+        return new TextMessage(OBJECT_MAPPER.writeValueAsString(frame));
+    }
+}
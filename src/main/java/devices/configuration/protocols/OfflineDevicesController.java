@@ -0,0 +1,20 @@
+package devices.configuration.protocols;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+class OfflineDevicesController {
+
+    private final CommunicationService service;
+
+    @GetMapping(path = "/protocols/offline", produces = "application/json")
+    List<LastSeenProjection.OfflineDevice> offlineDevices(@RequestParam(defaultValue = "1000") int limit) {
+        return service.offlineDevices(limit);
+    }
+}
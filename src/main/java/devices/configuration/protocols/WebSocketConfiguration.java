@@ -0,0 +1,38 @@
+package devices.configuration.protocols;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableWebSocket
+@AllArgsConstructor
+class WebSocketConfiguration implements WebSocketConfigurer {
+
+    private final List<OcppWebSocketHandler> handlers;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        handlers.forEach(handler -> registry.addHandler(handler, handler.path())
+                .addInterceptors(handler));
+    }
+
+    @Bean
+    static ServletServerContainerFactoryBean webSocketContainer(
+            @Value("${protocols.websocket.buffer-size}") int bufferSize,
+            @Value("${protocols.websocket.idle-timeout}") Duration idleTimeout) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(bufferSize);
+        container.setMaxBinaryMessageBufferSize(bufferSize);
+        container.setMaxSessionIdleTimeout(idleTimeout.toMillis());
+        return container;
+    }
+}
@@ -0,0 +1,12 @@
+package devices.configuration.protocols.iot16;
+
+import devices.configuration.protocols.BootNotification;
+
+record BatchedBootNotificationRequest(
+        String deviceId,
+        BootNotificationRequest request) {
+
+    BootNotification toBootNotificationEvent() {
+        return request.toBootNotificationEvent(deviceId);
+    }
+}
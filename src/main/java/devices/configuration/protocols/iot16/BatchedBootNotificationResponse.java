@@ -0,0 +1,6 @@
+package devices.configuration.protocols.iot16;
+
+record BatchedBootNotificationResponse(
+        String deviceId,
+        BootNotificationResponse response) {
+}
@@ -1,5 +1,6 @@
 package devices.configuration.protocols.iot16;
 
+import devices.configuration.protocols.CommunicationService.BootResponse;
 import lombok.Builder;
 
 @Builder
@@ -13,4 +14,16 @@ record BootNotificationResponse(
         Pending,
         Rejected
     }
+
+    static BootNotificationResponse from(BootResponse response) {
+        return BootNotificationResponse.builder()
+                .currentTime(response.serverTime().toString())
+                .interval(response.intervalInSeconds())
+                .status(response.state(state -> switch (state) {
+                            case UNKNOWN -> Status.Rejected;
+                            case IN_INSTALLATION -> Status.Pending;
+                            case EXISTING -> Status.Accepted;
+                        })
+                ).build();
+    }
 }
@@ -0,0 +1,4 @@
+package devices.configuration.protocols.iot16;
+
+record HeartbeatRequest() {
+}
@@ -0,0 +1,10 @@
+package devices.configuration.protocols.iot16;
+
+import java.time.Instant;
+
+record HeartbeatResponse(String currentTime) {
+
+    static HeartbeatResponse from(Instant serverTime) {
+        return new HeartbeatResponse(serverTime.toString());
+    }
+}
@@ -0,0 +1,37 @@
+package devices.configuration.protocols.iot16;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import devices.configuration.protocols.CommunicationService;
+import devices.configuration.protocols.OcppConnection;
+import devices.configuration.protocols.OcppWebSocketHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+import static devices.configuration.tools.JsonConfiguration.OBJECT_MAPPER;
+
+@Component
+class IoT16WebSocketHandler extends OcppWebSocketHandler {
+
+    private final CommunicationService service;
+
+    IoT16WebSocketHandler(CommunicationService service) {
+        super("/protocols/iot16/ws", "ocpp1.6");
+        this.service = service;
+    }
+
+    @Override
+    protected Object call(OcppConnection connection, String action, JsonNode payload) throws IOException {
+        return switch (action) {
+            case "BootNotification" -> bootNotification(connection,
+                    OBJECT_MAPPER.treeToValue(payload, BootNotificationRequest.class));
+            case "Heartbeat" -> HeartbeatResponse.from(service.handleHeartbeat(connection));
+            default -> null;
+        };
+    }
+
+    private BootNotificationResponse bootNotification(OcppConnection connection, BootNotificationRequest request) {
+        return service.handleBoot(connection, request.toBootNotificationEvent(connection.getDeviceId()))
+                .map(BootNotificationResponse::from);
+    }
+}
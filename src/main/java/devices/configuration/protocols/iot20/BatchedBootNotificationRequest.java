@@ -0,0 +1,12 @@
+package devices.configuration.protocols.iot20;
+
+import devices.configuration.protocols.BootNotification;
+
+record BatchedBootNotificationRequest(
+        String deviceId,
+        BootNotificationRequest request) {
+
+    BootNotification toBootNotificationEvent() {
+        return request.toBootNotificationEvent(deviceId);
+    }
+}
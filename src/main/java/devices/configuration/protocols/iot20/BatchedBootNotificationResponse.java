@@ -0,0 +1,6 @@
+package devices.configuration.protocols.iot20;
+
+record BatchedBootNotificationResponse(
+        String deviceId,
+        BootNotificationResponse response) {
+}
@@ -0,0 +1,4 @@
+package devices.configuration.protocols.iot20;
+
+record HeartbeatRequest() {
+}
@@ -0,0 +1,10 @@
+package devices.configuration.protocols.iot20;
+
+import java.time.Instant;
+
+record HeartbeatResponse(String currentTime) {
+
+    static HeartbeatResponse from(Instant serverTime) {
+        return new HeartbeatResponse(serverTime.toString());
+    }
+}
@@ -7,7 +7,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
-import static devices.configuration.protocols.iot20.BootNotificationResponse.Status.*;
+import java.util.List;
+
+import static devices.configuration.tools.JsonConfiguration.APPLICATION_SMILE_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @RestController
 @RequiredArgsConstructor
@@ -16,19 +20,30 @@ class IoT20Controller {
     private final CommunicationService service;
 
     @PostMapping(path = "/protocols/iot20/bootnotification/{deviceId}",
-            consumes = "application/json", produces = "application/json")
+            consumes = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE},
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     BootNotificationResponse handleBootNotification(@PathVariable String deviceId,
                                                     @RequestBody BootNotificationRequest request) {
         return service.handleBoot(request.toBootNotificationEvent(deviceId))
-                .map(resp -> BootNotificationResponse.builder()
-                        .currentTime(resp.serverTime().toString())
-                        .interval(resp.intervalInSeconds())
-                        .status(resp.state(state -> switch (state) {
-                                    case UNKNOWN -> Rejected;
-                                    case IN_INSTALLATION -> Pending;
-                                    case EXISTING -> Accepted;
-                                })
-                        ).build()
-                );
+                .map(BootNotificationResponse::from);
+    }
+
+    @PostMapping(path = "/protocols/iot20/heartbeat/{deviceId}",
+            consumes = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE},
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    HeartbeatResponse handleHeartbeat(@PathVariable String deviceId,
+                                      @RequestBody HeartbeatRequest request) {
+        return HeartbeatResponse.from(service.handleHeartbeat(deviceId));
+    }
+
+    @PostMapping(path = "/protocols/iot20/bootnotifications",
+            consumes = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE},
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    List<BatchedBootNotificationResponse> handleBootNotifications(@RequestBody List<BatchedBootNotificationRequest> requests) {
+        return service.handleBoots(requests,
+                BatchedBootNotificationRequest::toBootNotificationEvent,
+                (request, response) -> new BatchedBootNotificationResponse(
+                        request.deviceId(),
+                        BootNotificationResponse.from(response)));
     }
 }
@@ -0,0 +1,69 @@
+package devices.configuration.search;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Box of west,south,east,north degrees, west not greater than east.
+ * A box crossing the antimeridian is rejected, which the API answers with 400 Bad Request,
+ * clients query it as two boxes, one on each side of 180 degrees.
+ */
+record BoundingBox(double west, double south, double east, double north) {
+
+    static final BoundingBox WORLD = new BoundingBox(-180, -90, 180, 90);
+    private static final int MAX_CELLS = 64;
+
+    BoundingBox {
+        if (west > east) {
+            throw new IllegalArgumentException("Bounding box crossing the antimeridian is not supported, "
+                                               + "split it into " + west + "," + south + ",180," + north
+                                               + " and -180," + south + "," + east + "," + north);
+        }
+        if (south > north
+            || west < -180 || east > 180 || south < -90 || north > 90) {
+            throw new IllegalArgumentException("Invalid bounding box " + west + "," + south + "," + east + "," + north);
+        }
+    }
+
+    static BoundingBox of(double[] bbox) {
+        if (bbox.length != 4) {
+            throw new IllegalArgumentException("Bounding box needs west,south,east,north");
+        }
+        return new BoundingBox(bbox[0], bbox[1], bbox[2], bbox[3]);
+    }
+
+    /**
+     * Finest geohash precision still covering the box with a handful of cells, 0 when box is too big for any.
+     */
+    int precision() {
+        for (int precision = GeoHash.PRECISION; precision >= 4; precision--) {
+            if (cellsCount(precision) <= MAX_CELLS) {
+                return precision;
+            }
+        }
+        return 0;
+    }
+
+    Set<String> cells(int precision) {
+        double width = GeoHash.cellWidth(precision);
+        double height = GeoHash.cellHeight(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        for (double latitude = south; ; latitude = Math.min(latitude + height, north)) {
+            for (double longitude = west; ; longitude = Math.min(longitude + width, east)) {
+                cells.add(GeoHash.encode(latitude, longitude, precision));
+                if (longitude == east) {
+                    break;
+                }
+            }
+            if (latitude == north) {
+                break;
+            }
+        }
+        return cells;
+    }
+
+    private long cellsCount(int precision) {
+        return (long) (Math.ceil((east - west) / GeoHash.cellWidth(precision)) + 1)
+               * (long) (Math.ceil((north - south) / GeoHash.cellHeight(precision)) + 1);
+    }
+}
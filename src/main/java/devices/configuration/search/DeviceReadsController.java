@@ -1,38 +1,215 @@
 package devices.configuration.search;
 
+import devices.configuration.device.OpeningHoursMask;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
+import static devices.configuration.tools.JsonConfiguration.APPLICATION_SMILE_VALUE;
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @RestController
 @RequiredArgsConstructor
 class DeviceReadsController {
 
+    private static final int MAX_LIMIT = 1000;
+
     private final ReadModelsProjection reads;
+    private final PinClustersProjection clusters;
+    private final Clock clock;
 
     @GetMapping(path = "/devices", params = {"page", "size"},
-            produces = "application/vnd.device.summary+json")
-    Page<DeviceSummary> getSummary(String provider, Pageable pageable) {
-        return reads.findAllSummary(provider, pageable);
+            produces = {"application/vnd.device.summary+json",
+                    "application/vnd.device.summary+cbor",
+                    "application/vnd.device.summary+smile"})
+    Page<DeviceSummary> getSummary(String provider,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) ZonedDateTime openAt,
+                                   @RequestParam(defaultValue = "false") boolean openNow,
+                                   @RequestParam(required = false) ZoneId zone,
+                                   Pageable pageable,
+                                   ServletWebRequest request) {
+        ZonedDateTime time = openAt(openAt, openNow, zone);
+        if (notModified(request, versionsETag(provider, time, format(request)))) {
+            return null;
+        }
+        return reads.findAllSummary(provider, time, pageable);
+    }
+
+    @GetMapping(path = "/devices", params = "limit",
+            produces = {"application/vnd.device.summary+json",
+                    "application/vnd.device.summary+cbor",
+                    "application/vnd.device.summary+smile"})
+    DeviceSummaries getSummaries(String provider,
+                                 @RequestParam int limit,
+                                 @RequestParam(required = false) String after,
+                                 @RequestParam(defaultValue = "none") String count,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) ZonedDateTime openAt,
+                                 @RequestParam(defaultValue = "false") boolean openNow,
+                                 @RequestParam(required = false) ZoneId zone) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        String afterDeviceId;
+        DeviceSummaries.Count counting;
+        try {
+            afterDeviceId = after == null ? null : DeviceSummaries.deviceId(after);
+            counting = DeviceSummaries.Count.valueOf(count.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return reads.findSummaries(provider, afterDeviceId, limit, openAt(openAt, openNow, zone), counting);
     }
 
     @GetMapping(path = "/devices", params = {"page", "size"},
-            produces = "application/vnd.device.pin+json")
-    List<DevicePin> getPins(String provider) {
-        return reads.findAllPins(provider);
+            produces = {"application/vnd.device.pin+json",
+                    "application/vnd.device.pin+cbor",
+                    "application/vnd.device.pin+smile"})
+    List<DevicePin> getPins(String provider,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) ZonedDateTime openAt,
+                            @RequestParam(defaultValue = "false") boolean openNow,
+                            @RequestParam(required = false) ZoneId zone,
+                            @RequestParam(required = false) double[] bbox,
+                            ServletWebRequest request) {
+        ZonedDateTime time = openAt(openAt, openNow, zone);
+        BoundingBox box = boundingBox(bbox);
+        if (notModified(request, versionsETag(provider, time, format(request)))) {
+            return null;
+        }
+        return box == null
+                ? reads.findAllPins(provider, time)
+                : reads.findAllPins(provider, box, time);
+    }
+
+    @GetMapping(path = "/devices",
+            produces = APPLICATION_NDJSON_VALUE)
+    StreamingResponseBody streamPins(String provider,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) ZonedDateTime openAt,
+                                     @RequestParam(defaultValue = "false") boolean openNow,
+                                     @RequestParam(required = false) ZoneId zone,
+                                     @RequestParam(required = false) double[] bbox,
+                                     ServletWebRequest request) {
+        ZonedDateTime time = openAt(openAt, openNow, zone);
+        BoundingBox box = boundingBox(bbox);
+        if (notModified(request, versionsETag(provider, time, "ndjson"))) {
+            return null;
+        }
+        return output -> {
+            String after = "";
+            while (after != null) {
+                ReadModelsProjection.PinsChunk chunk = reads.findPinsAfter(provider, box, time, after);
+                for (String pin : chunk.pins()) {
+                    output.write(pin.getBytes(StandardCharsets.UTF_8));
+                    output.write('\n');
+                }
+                output.flush();
+                after = chunk.next();
+            }
+        };
+    }
+
+    @GetMapping(path = "/devices/clusters",
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    List<PinCluster> getClusters(String provider,
+                                 @RequestParam int zoom,
+                                 @RequestParam double[] bbox) {
+        if (zoom < 0 || zoom > PinClustersProjection.MAX_ZOOM) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "zoom must be between 0 and " + PinClustersProjection.MAX_ZOOM);
+        }
+        return clusters.find(provider, zoom, boundingBox(bbox));
     }
 
     @GetMapping(path = "/devices/{deviceId}",
-            produces = APPLICATION_JSON_VALUE)
-    Optional<DeviceDetails> getDetails(@PathVariable String deviceId) {
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    Optional<DeviceDetails> getDetails(@PathVariable String deviceId, ServletWebRequest request) {
+        Optional<Long> version = reads.findVersion(deviceId);
+        if (version.isPresent() && notModified(request, "\"" + format(request) + "-" + version.get() + "\"")) {
+            return null;
+        }
         return reads.findById(deviceId);
     }
+
+    /**
+     * Weak tag from the change counter of the provider, a single row read.
+     * Opening slot is included, as the same URL with openNow selects other devices as time goes.
+     */
+    private String versionsETag(String provider, ZonedDateTime openAt, String format) {
+        long version = reads.findVersions(provider);
+        return "W/\"" + format + "-" + version + (openAt == null ? "" : "-" + OpeningHoursMask.slotOf(openAt)) + "\"";
+    }
+
+    /**
+     * The same version encoded as JSON, CBOR or Smile are different representations,
+     * so their tags carry the format and caches keep them apart by Accept.
+     */
+    private static boolean notModified(ServletWebRequest request, String etag) {
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return request.checkNotModified(etag);
+    }
+
+    private static String format(ServletWebRequest request) {
+        List<MediaType> accepted = MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT));
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            String subtype = type.getSubtypeSuffix() == null ? type.getSubtype() : type.getSubtypeSuffix();
+            if (subtype.contains("cbor")) {
+                return "cbor";
+            }
+            if (subtype.contains("smile")) {
+                return "smile";
+            }
+            if (subtype.equals("json") || type.isWildcardSubtype()) {
+                return "json";
+            }
+        }
+        return "json";
+    }
+
+    private static BoundingBox boundingBox(double[] bbox) {
+        try {
+            return bbox == null ? null : BoundingBox.of(bbox);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Opening hours are local times of devices, which have no zone of their own,
+     * so openNow requires the zone of the devices and openAt is taken at its own offset unless a zone is given.
+     */
+    private ZonedDateTime openAt(ZonedDateTime openAt, boolean openNow, ZoneId zone) {
+        if (openAt != null) {
+            return zone == null ? openAt : openAt.withZoneSameInstant(zone);
+        }
+        if (openNow) {
+            if (zone == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "openNow requires zone of the devices, like zone=Europe/Warsaw");
+            }
+            return ZonedDateTime.now(clock.withZone(zone));
+        }
+        return null;
+    }
 }
@@ -0,0 +1,29 @@
+package devices.configuration.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Keyset page of summaries, next is an opaque token of the last device id, absent on the last page.
+ */
+record DeviceSummaries(
+        List<DeviceSummary> content,
+        @JsonInclude(NON_NULL) String next,
+        @JsonInclude(NON_NULL) Long total) {
+
+    enum Count {NONE, EXACT, ESTIMATED}
+
+    static String token(String deviceId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(deviceId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String deviceId(String token) {
+        return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,54 @@
+package devices.configuration.search;
+
+/**
+ * Plain geohash encoding, the same as geohash_encode function of the database.
+ */
+final class GeoHash {
+
+    static final int PRECISION = 6;
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoHash() {
+    }
+
+    static String encode(double latitude, double longitude, int precision) {
+        double south = -90, north = 90, west = -180, east = 180;
+        char[] hash = new char[precision];
+        boolean even = true;
+        for (int i = 0; i < precision; i++) {
+            int bits = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                if (even) {
+                    double middle = (west + east) / 2;
+                    if (longitude >= middle) {
+                        bits = bits * 2 + 1;
+                        west = middle;
+                    } else {
+                        bits = bits * 2;
+                        east = middle;
+                    }
+                } else {
+                    double middle = (south + north) / 2;
+                    if (latitude >= middle) {
+                        bits = bits * 2 + 1;
+                        south = middle;
+                    } else {
+                        bits = bits * 2;
+                        north = middle;
+                    }
+                }
+                even = !even;
+            }
+            hash[i] = BASE32[bits];
+        }
+        return new String(hash);
+    }
+
+    static double cellWidth(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+
+    static double cellHeight(int precision) {
+        return 180 / Math.pow(2, 5 * precision / 2);
+    }
+}
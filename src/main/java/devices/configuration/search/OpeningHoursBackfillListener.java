@@ -0,0 +1,100 @@
+package devices.configuration.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import devices.configuration.device.DeviceConfiguration;
+import devices.configuration.device.OpeningHoursMask;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static devices.configuration.tools.JsonConfiguration.OBJECT_MAPPER;
+
+/**
+ * Fills opening hours mask of device reads projected before the mask column existed.
+ * Runs in background after startup, each batch in its own short transaction under a transaction scoped advisory lock,
+ * a node finding the lock taken leaves the backfill to the node holding it.
+ * Masks are written without bumping the row version, so projection writes never fail on the backfill,
+ * rows locked by a projection write are skipped as that write fills their mask anyway.
+ * Versions of providers of filled rows are bumped after each batch, as their devices start matching openAt.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class OpeningHoursBackfillListener {
+
+    private static final int BATCH = 100;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final ReadModelsProjection projection;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startBackfill() {
+        Thread.ofVirtual()
+                .name("opening-hours-backfill")
+                .start(this::backfill);
+    }
+
+    void backfill() {
+        String after = "";
+        try {
+            while (after != null) {
+                String from = after;
+                after = transactions.execute(status -> backfillAfter(from));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Backfilling opening hours stopped after device '{}'", after, e);
+        }
+    }
+
+    private String backfillAfter(String after) {
+        if (!Boolean.TRUE.equals(jdbc.queryForObject(
+                "select pg_try_advisory_xact_lock(hashtext('device_reads_opening_hours'))", Boolean.class))) {
+            return null;
+        }
+        List<Map<String, Object>> batch = jdbc.queryForList("""
+                select device_id, provider, cast(details as text) as details
+                from device_reads
+                where opening_hours is null
+                  and details is not null
+                  and device_id > ?
+                order by device_id
+                limit ?
+                for update skip locked""", after, BATCH);
+        if (batch.isEmpty()) {
+            return null;
+        }
+        List<Object[]> masks = new ArrayList<>(batch.size());
+        Set<String> providers = new HashSet<>();
+        for (Map<String, Object> row : batch) {
+            String deviceId = (String) row.get("device_id");
+            try {
+                OpeningHoursMask mask = OBJECT_MAPPER.readValue((String) row.get("details"), DeviceConfiguration.class)
+                        .openingHoursMask();
+                if (mask != null) {
+                    masks.add(new Object[]{mask.toBytes(), deviceId});
+                    providers.add((String) row.get("provider"));
+                }
+            } catch (JsonProcessingException e) {
+                log.warn("Skipped opening hours of device '{}' with unreadable details", deviceId, e);
+            }
+        }
+        jdbc.batchUpdate("""
+                update device_reads
+                set opening_hours = ?
+                where device_id = ?
+                  and opening_hours is null""", masks);
+        projection.bumpVersionsAfterCommit(providers);
+        return (String) batch.get(batch.size() - 1).get("device_id");
+    }
+}
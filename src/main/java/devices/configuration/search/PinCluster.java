@@ -0,0 +1,12 @@
+package devices.configuration.search;
+
+import devices.configuration.device.Location;
+
+import java.util.Map;
+
+record PinCluster(
+        int zoom, int x, int y,
+        long count,
+        Location.Coordinates center,
+        Map<DevicePin.Status, Long> statuses) {
+}
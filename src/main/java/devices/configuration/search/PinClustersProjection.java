@@ -0,0 +1,204 @@
+package devices.configuration.search;
+
+import devices.configuration.device.Location;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pins counted per web mercator tile of every zoom level up to {@link #MAX_ZOOM}.
+ * A moved pin only appends its difference for the tile of {@link #MAX_ZOOM} to pin_cluster_changes,
+ * so writers never wait on the few hot rows of low zoom levels,
+ * changes are folded into tiles of all zoom levels in the background, by one node at a time.
+ * Devices without provider are counted under empty provider, so a null provider finds them like device reads do.
+ */
+@Component
+@Transactional
+class PinClustersProjection {
+
+    static final int MAX_ZOOM = 15;
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final int foldBatch;
+
+    PinClustersProjection(JdbcTemplate jdbc, TransactionTemplate transactions,
+                          @Value("${devices.clusters.fold-batch}") int foldBatch) {
+        this.jdbc = jdbc;
+        this.transactions = transactions;
+        this.foldBatch = foldBatch;
+    }
+
+    public void move(String previousProvider, DevicePin previous, String provider, DevicePin current) {
+        Map<Tile, Delta> deltas = new LinkedHashMap<>();
+        contribute(deltas, previousProvider, previous, -1);
+        contribute(deltas, provider, current, 1);
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> changes = new ArrayList<>();
+        deltas.forEach((tile, delta) -> changes.add(new Object[]{tile.provider(), tile.x(), tile.y(),
+                delta.count(), delta.available(), delta.charging(), delta.faulted(),
+                delta.latitudeSum(), delta.longitudeSum()}));
+        jdbc.batchUpdate("""
+                insert into pin_cluster_changes (provider, x, y, count, available, charging, faulted, latitude_sum, longitude_sum)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?)""", changes);
+    }
+
+    @Scheduled(fixedDelayString = "${devices.clusters.fold-delay}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void foldChanges() {
+        Integer folded;
+        do {
+            folded = transactions.execute(status -> fold());
+        } while (folded != null && folded > 0);
+    }
+
+    /**
+     * Folds the oldest batch of changes into tiles of every zoom level, a tile of {@link #MAX_ZOOM}
+     * lies in the tile of a lower zoom given by shifting its coordinates.
+     * Tiles are updated in a fixed order under a transaction scoped advisory lock,
+     * a node finding the lock taken folds nothing and leaves the changes to the node holding it.
+     *
+     * @return count of tiles updated, 0 when there was nothing to fold
+     */
+    public int fold() {
+        if (!Boolean.TRUE.equals(jdbc.queryForObject(
+                "select pg_try_advisory_xact_lock(hashtext('pin_cluster_changes'))", Boolean.class))) {
+            return 0;
+        }
+        List<Folded> folded = jdbc.query("""
+                        with changes as (
+                            delete from pin_cluster_changes
+                            where id in (select id from pin_cluster_changes order by id limit ?)
+                            returning provider, x, y, count, available, charging, faulted, latitude_sum, longitude_sum
+                        ), folded as (
+                            insert into pin_clusters (provider, zoom, x, y, count, available, charging, faulted, latitude_sum, longitude_sum)
+                            select provider, zoom, x >> (? - zoom), y >> (? - zoom),
+                                   sum(count), sum(available), sum(charging), sum(faulted),
+                                   sum(latitude_sum), sum(longitude_sum)
+                            from changes
+                                     cross join generate_series(0, ?) as zoom
+                            group by 1, 2, 3, 4
+                            order by 1, 2, 3, 4
+                            on conflict (provider, zoom, x, y) do update
+                            set count         = pin_clusters.count + excluded.count,
+                                available     = pin_clusters.available + excluded.available,
+                                charging      = pin_clusters.charging + excluded.charging,
+                                faulted       = pin_clusters.faulted + excluded.faulted,
+                                latitude_sum  = pin_clusters.latitude_sum + excluded.latitude_sum,
+                                longitude_sum = pin_clusters.longitude_sum + excluded.longitude_sum
+                            returning provider, zoom, x, y, count
+                        )
+                        select provider, zoom, x, y, count from folded""",
+                (rs, i) -> new Folded(rs.getString("provider"), rs.getInt("zoom"), rs.getInt("x"), rs.getInt("y"),
+                        rs.getLong("count")),
+                foldBatch, MAX_ZOOM, MAX_ZOOM, MAX_ZOOM);
+        List<Object[]> emptied = folded.stream()
+                .filter(tile -> tile.count() <= 0)
+                .map(tile -> new Object[]{tile.provider(), tile.zoom(), tile.x(), tile.y()})
+                .toList();
+        if (!emptied.isEmpty()) {
+            jdbc.batchUpdate("""
+                    delete from pin_clusters
+                    where provider = ? and zoom = ? and x = ? and y = ? and count <= 0""", emptied);
+        }
+        return folded.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PinCluster> find(String provider, int zoom, BoundingBox box) {
+        return jdbc.query("""
+                        select zoom, x, y, count, available, charging, faulted, latitude_sum, longitude_sum
+                        from pin_clusters
+                        where provider = ?
+                          and zoom = ?
+                          and x between ? and ?
+                          and y between ? and ?
+                          and count > 0""",
+                (rs, i) -> {
+                    long count = rs.getLong("count");
+                    Map<DevicePin.Status, Long> statuses = new EnumMap<>(DevicePin.Status.class);
+                    statuses.put(DevicePin.Status.AVAILABLE, rs.getLong("available"));
+                    statuses.put(DevicePin.Status.CHARGING, rs.getLong("charging"));
+                    statuses.put(DevicePin.Status.FAULTED, rs.getLong("faulted"));
+                    return new PinCluster(rs.getInt("zoom"), rs.getInt("x"), rs.getInt("y"), count,
+                            new Location.Coordinates(
+                                    BigDecimal.valueOf(rs.getDouble("longitude_sum") / count),
+                                    BigDecimal.valueOf(rs.getDouble("latitude_sum") / count)),
+                            statuses);
+                },
+                key(provider), zoom,
+                tileX(box.west(), zoom), tileX(box.east(), zoom),
+                tileY(box.north(), zoom), tileY(box.south(), zoom));
+    }
+
+    private static void contribute(Map<Tile, Delta> deltas, String provider, DevicePin pin, int sign) {
+        if (pin == null || pin.coordinates() == null
+            || pin.coordinates().latitude() == null || pin.coordinates().longitude() == null) {
+            return;
+        }
+        double latitude = pin.coordinates().latitude().doubleValue();
+        double longitude = pin.coordinates().longitude().doubleValue();
+        Delta delta = new Delta(sign,
+                sign * pin.statuses().stream().filter(DevicePin.Status.AVAILABLE::equals).count(),
+                sign * pin.statuses().stream().filter(DevicePin.Status.CHARGING::equals).count(),
+                sign * pin.statuses().stream().filter(DevicePin.Status.FAULTED::equals).count(),
+                sign * latitude,
+                sign * longitude);
+        deltas.merge(new Tile(key(provider), tileX(longitude, MAX_ZOOM), tileY(latitude, MAX_ZOOM)), delta, Delta::plus);
+    }
+
+    private static String key(String provider) {
+        return provider == null ? "" : provider;
+    }
+
+    static int tileX(double longitude, int zoom) {
+        int tiles = 1 << zoom;
+        return Math.min((int) Math.floor((longitude + 180) / 360 * tiles), tiles - 1);
+    }
+
+    static int tileY(double latitude, int zoom) {
+        int tiles = 1 << zoom;
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        double y = (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * tiles;
+        return Math.max(0, Math.min((int) Math.floor(y), tiles - 1));
+    }
+
+    private record Tile(String provider, int x, int y) {
+    }
+
+    private record Folded(String provider, int zoom, int x, int y, long count) {
+    }
+
+    private record Delta(long count, long available, long charging, long faulted,
+                         double latitudeSum, double longitudeSum) {
+
+        Delta plus(Delta other) {
+            return new Delta(count + other.count,
+                    available + other.available,
+                    charging + other.charging,
+                    faulted + other.faulted,
+                    latitudeSum + other.latitudeSum,
+                    longitudeSum + other.longitudeSum);
+        }
+
+        boolean isZero() {
+            return count == 0 && available == 0 && charging == 0 && faulted == 0
+                   && latitudeSum == 0 && longitudeSum == 0;
+        }
+    }
+}
@@ -1,47 +1,84 @@
 package devices.configuration.search;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import devices.configuration.device.DeviceConfiguration;
+import devices.configuration.device.Location;
+import devices.configuration.device.OpeningHoursMask;
 import devices.configuration.device.Ownership;
 import devices.configuration.protocols.BootNotification;
 import devices.configuration.protocols.DeviceStatuses;
-import lombok.AllArgsConstructor;
+import devices.configuration.tools.JsonConfiguration;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
 import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.Type;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.*;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
+@Slf4j
 @Component
 @Transactional
-@AllArgsConstructor
 class ReadModelsProjection {
 
     private final DeviceReadsRepository repository;
+    private final PinClustersProjection clusters;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate versions;
+    private final int chunkSize;
+
+    ReadModelsProjection(DeviceReadsRepository repository, PinClustersProjection clusters, JdbcTemplate jdbc,
+                         TransactionTemplate transactions,
+                         @Value("${devices.reads.stream-chunk}") int chunkSize) {
+        this.repository = repository;
+        this.clusters = clusters;
+        this.jdbc = jdbc;
+        this.versions = new TransactionTemplate(transactions.getTransactionManager());
+        this.versions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
 
     @EventListener
     public void handle(DeviceConfiguration details) {
         DeviceReadsEntity entity = repository.findById(details.deviceId())
                 .orElseGet(() -> new DeviceReadsEntity(details.deviceId()));
+        String previousProvider = entity.getProvider();
+        DevicePin previousPin = entity.getPin();
 
         entity
                 .setOwnership(details.ownership())
                 .setDetails(details)
+                .setOpeningHours(details)
+                .setLocation(details.location())
                 .setPin(DevicePin.ofNullable(details, entity.getStatuses()))
                 .setSummary(DeviceSummary.ofNullable(details, entity.getStatuses()));
 
         repository.save(entity);
+        clusters.move(previousProvider, previousPin, entity.getProvider(), entity.getPin());
+        bumpVersionsAfterCommit(Arrays.asList(previousProvider, entity.getProvider()));
     }
 
     @EventListener
@@ -58,6 +95,7 @@ class ReadModelsProjection {
     public void handle(DeviceStatuses statuses) {
         DeviceReadsEntity entity = repository.findById(statuses.deviceId())
                 .orElseGet(() -> new DeviceReadsEntity(statuses.deviceId()));
+        DevicePin previousPin = entity.getPin();
 
         entity
                 .setStatuses(statuses)
@@ -65,6 +103,8 @@ class ReadModelsProjection {
                 .setSummary(DeviceSummary.ofNullable(entity.getDetails(), statuses));
 
         repository.save(entity);
+        clusters.move(entity.getProvider(), previousPin, entity.getProvider(), entity.getPin());
+        bumpVersionsAfterCommit(Collections.singleton(entity.getProvider()));
     }
 
     @Transactional(readOnly = true)
@@ -73,24 +113,260 @@ class ReadModelsProjection {
                 .map(entity -> new DeviceDetails(entity.details, entity.boot));
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(String deviceId) {
+        return repository.findVersionById(deviceId);
+    }
+
+    /**
+     * Change counter of the provider, bumped after pin or summary of any of its devices is committed.
+     * Devices without provider share the counter of empty provider, which only costs them extra invalidations.
+     */
+    @Transactional(readOnly = true)
+    public long findVersions(String provider) {
+        return jdbc.query("select version from provider_versions where provider = ?",
+                        (rs, i) -> rs.getLong(1), versionKey(provider)).stream()
+                .findFirst()
+                .orElse(0L);
+    }
+
+    /**
+     * Each bump is its own short transaction after the projection commits, so projections of devices
+     * of one provider do not queue on its counter row for their whole transaction.
+     * A reader may see the new rows under the old tag for the moment between both commits,
+     * a failed bump leaves the tag stale until the next change of the provider.
+     */
+    void bumpVersionsAfterCommit(Collection<String> providers) {
+        List<String> keys = providers.stream()
+                .map(ReadModelsProjection::versionKey)
+                .distinct()
+                .sorted()
+                .toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpVersions(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    bumpVersions(keys);
+                } catch (RuntimeException e) {
+                    log.warn("Bumping versions of providers {} failed", keys, e);
+                }
+            }
+        });
+    }
+
+    private void bumpVersions(List<String> keys) {
+        versions.executeWithoutResult(status -> jdbc.batchUpdate("""
+                        insert into provider_versions (provider, version)
+                        values (?, 1)
+                        on conflict (provider) do update
+                        set version = provider_versions.version + 1""",
+                keys.stream()
+                        .map(key -> new Object[]{key})
+                        .toList()));
+    }
+
+    private static String versionKey(String provider) {
+        return provider == null ? "" : provider;
+    }
+
     @Transactional(readOnly = true)
     public List<DevicePin> findAllPins(String provider) {
-        return repository.findAllByProvider(provider)
+        return findAllPins(provider, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DevicePin> findAllPins(String provider, ZonedDateTime openAt) {
+        List<DeviceReadsEntity> reads = openAt == null
+                ? repository.findAllByProvider(provider)
+                : repository.findAllByProviderOpenAt(provider, OpeningHoursMask.slotOf(openAt));
+        return reads.stream()
+                .map(DeviceReadsEntity::getPin)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<DevicePin> findAllPins(String provider, BoundingBox box, ZonedDateTime openAt) {
+        int slot = openAt == null ? -1 : OpeningHoursMask.slotOf(openAt);
+        int precision = box.precision();
+        List<DeviceReadsEntity> reads = switch (precision) {
+            case 6 -> repository.findAllByProviderInGeohash6(provider, box, box.cells(precision), slot);
+            case 5 -> repository.findAllByProviderInGeohash5(provider, box, box.cells(precision), slot);
+            case 4 -> repository.findAllByProviderInGeohash4(provider, box, box.cells(precision), slot);
+            default -> repository.findAllByProviderWithin(provider, box, slot);
+        };
+        return reads.stream()
                 .map(DeviceReadsEntity::getPin)
                 .toList();
     }
 
+    /**
+     * Next chunk of raw pin json after given device id, so a stream to a slow client
+     * holds a connection only while each chunk is read, never while it is written.
+     */
+    @Transactional(readOnly = true)
+    public PinsChunk findPinsAfter(String provider, BoundingBox box, ZonedDateTime openAt, String after) {
+        int slot = openAt == null ? -1 : OpeningHoursMask.slotOf(openAt);
+        BoundingBox within = box == null ? BoundingBox.WORLD : box;
+        List<String> deviceIds = new ArrayList<>();
+        List<String> pins = new ArrayList<>();
+        jdbc.query("""
+                        select device_id, pin::text from device_reads
+                        where (provider = cast(? as text) or (cast(? as text) is null and provider is null))
+                          and device_id > ?
+                          and pin is not null
+                          and case when ? < 0 then true else get_bit(opening_hours, ?) = 1 end
+                          and (? or (latitude between ? and ? and longitude between ? and ?))
+                        order by device_id
+                        limit ?""",
+                (RowCallbackHandler) rs -> {
+                    deviceIds.add(rs.getString(1));
+                    pins.add(rs.getString(2));
+                },
+                provider, provider, after == null ? "" : after, slot, slot, box == null,
+                within.south(), within.north(), within.west(), within.east(), chunkSize);
+        String next = pins.size() == chunkSize ? deviceIds.get(deviceIds.size() - 1) : null;
+        return new PinsChunk(pins, next);
+    }
+
+    record PinsChunk(List<String> pins, String next) {
+    }
+
     @Transactional(readOnly = true)
     public Page<DeviceSummary> findAllSummary(String provider, Pageable pageable) {
-        return repository.findAllByProvider(provider, pageable)
-                .map(DeviceReadsEntity::getSummary);
+        return findAllSummary(provider, null, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<DeviceSummary> findAllSummary(String provider, ZonedDateTime openAt, Pageable pageable) {
+        Page<DeviceReadsEntity> reads = openAt == null
+                ? repository.findAllByProvider(provider, pageable)
+                : repository.findAllByProviderOpenAt(provider, OpeningHoursMask.slotOf(openAt), pageable);
+        return reads.map(DeviceReadsEntity::getSummary);
+    }
+
+    @Transactional(readOnly = true)
+    public DeviceSummaries findSummaries(String provider, String after, int limit,
+                                         ZonedDateTime openAt, DeviceSummaries.Count count) {
+        int slot = openAt == null ? -1 : OpeningHoursMask.slotOf(openAt);
+        List<DeviceReadsEntity> reads = repository.findAllByProviderAfter(provider, after == null ? "" : after, slot, limit + 1);
+        List<DeviceSummary> content = reads.stream()
+                .limit(limit)
+                .map(DeviceReadsEntity::getSummary)
+                .toList();
+        String next = reads.size() > limit
+                ? DeviceSummaries.token(reads.get(limit - 1).getDeviceId())
+                : null;
+        Long total = switch (count) {
+            case NONE -> null;
+            case EXACT -> repository.countByProvider(provider, slot);
+            case ESTIMATED -> estimateCount(provider, slot);
+        };
+        return new DeviceSummaries(content, next, total);
+    }
+
+    /**
+     * Planner's row estimate, from table statistics instead of visiting every row of the provider.
+     */
+    private long estimateCount(String provider, int slot) {
+        String plan = jdbc.queryForObject("""
+                        explain (format json)
+                        select 1 from device_reads
+                        where (provider = cast(? as text) or (cast(? as text) is null and provider is null))
+                          and case when ? < 0 then true else get_bit(opening_hours, ?) = 1 end""",
+                String.class, provider, provider, slot, slot);
+        try {
+            return JsonConfiguration.OBJECT_MAPPER.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected explain output " + plan, e);
+        }
     }
 
+    /**
+     * Null provider selects devices without provider in every query, as derived queries do,
+     * the parameter is compared with equality so the provider indexes stay usable.
+     */
     @Repository
     interface DeviceReadsRepository extends PagingAndSortingRepository<DeviceReadsEntity, String> {
-        Stream<DeviceReadsEntity> findAllByProvider(String provider);
+        List<DeviceReadsEntity> findAllByProvider(String provider);
 
         Page<DeviceReadsEntity> findAllByProvider(String provider, Pageable pageable);
+
+        @Query(value = """
+                select * from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and get_bit(opening_hours, :slot) = 1""", nativeQuery = true)
+        List<DeviceReadsEntity> findAllByProviderOpenAt(String provider, int slot);
+
+        @Query(value = """
+                select * from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and get_bit(opening_hours, :slot) = 1""",
+                countQuery = """
+                        select count(*) from device_reads
+                        where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                          and get_bit(opening_hours, :slot) = 1""",
+                nativeQuery = true)
+        Page<DeviceReadsEntity> findAllByProviderOpenAt(String provider, int slot, Pageable pageable);
+
+        @Query(value = """
+                select * from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and geohash in (:cells)
+                  and latitude between :#{#box.south} and :#{#box.north}
+                  and longitude between :#{#box.west} and :#{#box.east}
+                  and case when :slot < 0 then true else get_bit(opening_hours, :slot) = 1 end""", nativeQuery = true)
+        List<DeviceReadsEntity> findAllByProviderInGeohash6(String provider, BoundingBox box, Collection<String> cells, int slot);
+
+        @Query(value = """
+                select * from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and left(geohash, 5) in (:cells)
+                  and latitude between :#{#box.south} and :#{#box.north}
+                  and longitude between :#{#box.west} and :#{#box.east}
+                  and case when :slot < 0 then true else get_bit(opening_hours, :slot) = 1 end""", nativeQuery = true)
+        List<DeviceReadsEntity> findAllByProviderInGeohash5(String provider, BoundingBox box, Collection<String> cells, int slot);
+
+        @Query(value = """
+                select * from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and left(geohash, 4) in (:cells)
+                  and latitude between :#{#box.south} and :#{#box.north}
+                  and longitude between :#{#box.west} and :#{#box.east}
+                  and case when :slot < 0 then true else get_bit(opening_hours, :slot) = 1 end""", nativeQuery = true)
+        List<DeviceReadsEntity> findAllByProviderInGeohash4(String provider, BoundingBox box, Collection<String> cells, int slot);
+
+        @Query(value = """
+                select * from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and latitude between :#{#box.south} and :#{#box.north}
+                  and longitude between :#{#box.west} and :#{#box.east}
+                  and case when :slot < 0 then true else get_bit(opening_hours, :slot) = 1 end""", nativeQuery = true)
+        List<DeviceReadsEntity> findAllByProviderWithin(String provider, BoundingBox box, int slot);
+
+        @Query(value = """
+                select * from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and device_id > :after
+                  and case when :slot < 0 then true else get_bit(opening_hours, :slot) = 1 end
+                order by device_id
+                limit :limit""", nativeQuery = true)
+        List<DeviceReadsEntity> findAllByProviderAfter(String provider, String after, int slot, int limit);
+
+        @Query(value = """
+                select count(*) from device_reads
+                where (provider = cast(:provider as text) or (cast(:provider as text) is null and provider is null))
+                  and case when :slot < 0 then true else get_bit(opening_hours, :slot) = 1 end""", nativeQuery = true)
+        long countByProvider(String provider, int slot);
+
+        @Query("select e.version from DeviceReadsEntity e where e.deviceId = :deviceId")
+        Optional<Long> findVersionById(String deviceId);
     }
 
     @Data
@@ -120,6 +396,13 @@ class ReadModelsProjection {
         @Column(columnDefinition = "jsonb")
         private DeviceConfiguration details;
 
+        @Column(name = "opening_hours")
+        private byte[] openingHours;
+
+        private Double latitude;
+        private Double longitude;
+        private String geohash;
+
         @Type(type = "jsonb")
         @Column(columnDefinition = "jsonb")
         private DeviceStatuses statuses;
@@ -136,6 +419,26 @@ class ReadModelsProjection {
             provider = ownership.provider();
             return this;
         }
+
+        DeviceReadsEntity setLocation(Location location) {
+            Location.Coordinates coordinates = location == null ? null : location.coordinates();
+            if (coordinates == null || coordinates.latitude() == null || coordinates.longitude() == null) {
+                latitude = null;
+                longitude = null;
+                geohash = null;
+            } else {
+                latitude = coordinates.latitude().doubleValue();
+                longitude = coordinates.longitude().doubleValue();
+                geohash = GeoHash.encode(latitude, longitude, GeoHash.PRECISION);
+            }
+            return this;
+        }
+
+        DeviceReadsEntity setOpeningHours(DeviceConfiguration details) {
+            OpeningHoursMask mask = details.openingHoursMask();
+            openingHours = mask == null ? null : mask.toBytes();
+            return this;
+        }
     }
 
 }
@@ -0,0 +1,150 @@
+package devices.configuration.tools;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Component
+public class DatabaseNotifications implements SmartLifecycle {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final DataSourceProperties dataSource;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    public DatabaseNotifications(JdbcTemplate jdbc, DataSourceProperties dataSource) {
+        this.jdbc = jdbc;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Listener receives payload of every notification sent on the channel by any node, including this one.
+     * After the listening connection is re-established the listener is called with null payload,
+     * as notifications sent in the meantime are lost and local state has to be fully refreshed.
+     */
+    public void listen(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(validated(channel), c -> new CopyOnWriteArrayList<>())
+                .add(listener);
+    }
+
+    /**
+     * Notification is delivered when surrounding transaction commits, or immediately without transaction.
+     */
+    public void notify(String channel, String payload) {
+        jdbc.execute("select pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) statement -> {
+            statement.setString(1, validated(channel));
+            statement.setString(2, payload);
+            return statement.execute();
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::receive, "database-notifications");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread receiving = thread;
+        if (receiving != null) {
+            receiving.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void receive() {
+        boolean reconnected = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSource.determineUrl(),
+                    dataSource.determineUsername(),
+                    dataSource.determinePassword())) {
+                if (reconnected) {
+                    listeners.keySet().forEach(channel -> dispatch(channel, null));
+                }
+                receive(connection);
+            } catch (SQLException e) {
+                log.warn("Listening for database notifications failed, reconnecting", e);
+            }
+            reconnected = true;
+            sleep(RECONNECT_DELAY_MILLIS);
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection notifications = connection.unwrap(PGConnection.class);
+        Set<String> listening = new HashSet<>();
+        while (running) {
+            for (String channel : listeners.keySet()) {
+                if (listening.add(channel)) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+            }
+            PGNotification[] received = notifications.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (received != null) {
+                for (PGNotification notification : received) {
+                    dispatch(notification.getName(), notification.getParameter());
+                }
+            }
+        }
+    }
+
+    private void dispatch(String channel, String payload) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(payload);
+            } catch (RuntimeException e) {
+                log.error("Handling database notification on {} failed", channel, e);
+            }
+        }
+    }
+
+    private static String validated(String channel) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        return channel;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
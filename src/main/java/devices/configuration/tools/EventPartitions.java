@@ -0,0 +1,40 @@
+package devices.configuration.tools;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of event tables created ahead of time, so new events never land in default partition.
+ */
+@Slf4j
+@Component
+class EventPartitions {
+
+    private static final List<String> PARTITIONED = List.of("device_events", "installation_events");
+
+    private final JdbcTemplate jdbc;
+    private final int monthsAhead;
+
+    EventPartitions(JdbcTemplate jdbc, @Value("${events.partitions.months-ahead}") int monthsAhead) {
+        this.jdbc = jdbc;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(cron = "${events.partitions.cron}")
+    void createUpcomingPartitions() {
+        PARTITIONED.forEach(table -> jdbc.query(
+                "select create_monthly_partitions(?, ?, ?)",
+                rs -> {
+                },
+                table, Date.valueOf(LocalDate.now()), monthsAhead)
+        );
+        log.info("Ensured partitions of {} for next {} months", PARTITIONED, monthsAhead);
+    }
+}
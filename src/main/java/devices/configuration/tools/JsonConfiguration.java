@@ -6,16 +6,22 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.introspect.AnnotatedClassResolver;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import com.vladmihalcea.hibernate.type.util.ObjectMapperSupplier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 import javax.annotation.PostConstruct;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -25,16 +31,24 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
 @Configuration
 public class JsonConfiguration implements ObjectMapperSupplier {
 
-    public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
-            .registerModule(new ParameterNamesModule(JsonCreator.Mode.PROPERTIES))
-            .registerModule(new Jdk8Module())
-            .registerModule(new JavaTimeModule())
-            .setVisibility(PropertyAccessor.CREATOR, ANY)
-            .setVisibility(PropertyAccessor.FIELD, ANY)
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
-            .configure(SerializationFeature.FAIL_ON_UNWRAPPED_TYPE_IDENTIFIERS, false)
-            .configure(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN, true);
+    public static final ObjectMapper OBJECT_MAPPER = configured(new ObjectMapper());
+    public static final ObjectMapper CBOR_MAPPER = configured(new CBORMapper());
+    public static final ObjectMapper SMILE_MAPPER = configured(new SmileMapper());
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private static ObjectMapper configured(ObjectMapper mapper) {
+        return mapper
+                .registerModule(new ParameterNamesModule(JsonCreator.Mode.PROPERTIES))
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule())
+                .setVisibility(PropertyAccessor.CREATOR, ANY)
+                .setVisibility(PropertyAccessor.FIELD, ANY)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .configure(SerializationFeature.FAIL_ON_UNWRAPPED_TYPE_IDENTIFIERS, false)
+                .configure(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN, true);
+    }
 
 
     @Bean
@@ -47,6 +61,24 @@ public class JsonConfiguration implements ObjectMapperSupplier {
         return new MappingJackson2HttpMessageConverter(OBJECT_MAPPER);
     }
 
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborMessageConverter() {
+        MappingJackson2CborHttpMessageConverter converter = new MappingJackson2CborHttpMessageConverter(CBOR_MAPPER);
+        converter.setSupportedMediaTypes(List.of(
+                MediaType.APPLICATION_CBOR,
+                new MediaType("application", "*+cbor")));
+        return converter;
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileMessageConverter() {
+        MappingJackson2SmileHttpMessageConverter converter = new MappingJackson2SmileHttpMessageConverter(SMILE_MAPPER);
+        converter.setSupportedMediaTypes(List.of(
+                MediaType.valueOf(APPLICATION_SMILE_VALUE),
+                new MediaType("application", "*+smile")));
+        return converter;
+    }
+
     @Override
     public ObjectMapper get() {
         return OBJECT_MAPPER;
@@ -0,0 +1,132 @@
+package devices.configuration.tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Component
+@Transactional
+@AllArgsConstructor
+public class Outbox {
+
+    private final OutboxRepository repository;
+
+    /**
+     * Events of the same aggregate are relayed one at a time in order of publishing,
+     * events of different aggregates independently of each other.
+     * Order follows time ordered ids, which holds across nodes as long as their clocks drift apart
+     * less than the time between two writes of the same aggregate.
+     * Delivery is at least once, listeners have to tolerate duplicates.
+     */
+    public void publish(String aggregateId, Object event) {
+        repository.save(new OutboxEntity(aggregateId, event));
+    }
+
+    public void publishAll(String aggregateId, Collection<?> events) {
+        publishAll(events, event -> aggregateId);
+    }
+
+    public <T> void publishAll(Collection<? extends T> events, Function<T, String> aggregateId) {
+        repository.saveAll(events.stream()
+                .map(event -> new OutboxEntity(aggregateId.apply(event), event))
+                .toList());
+    }
+
+    @Repository
+    interface OutboxRepository extends JpaRepository<OutboxEntity, UUID> {
+        /**
+         * Oldest live event of each aggregate which is due for (re)delivery.
+         */
+        @Query(value = """
+                select *
+                from outbox o
+                where not o.dead
+                  and coalesce(o.next_attempt, o.time) <= now()
+                  and not exists(select 1
+                                 from outbox e
+                                 where not e.dead
+                                   and e.aggregate_id = o.aggregate_id
+                                   and e.id < o.id)
+                order by o.id
+                limit :batch""", nativeQuery = true)
+        List<OutboxEntity> findHeads(int batch);
+
+        @Query(value = """
+                select *
+                from outbox o
+                where o.id = :id
+                  and not o.dead
+                  and not exists(select 1
+                                 from outbox e
+                                 where not e.dead
+                                   and e.aggregate_id = o.aggregate_id
+                                   and e.id < o.id)
+                for update skip locked""", nativeQuery = true)
+        Optional<OutboxEntity> lockHead(UUID id);
+
+        @Modifying
+        @Query(value = """
+                update outbox
+                set attempts     = attempts + 1,
+                    last_error   = :error,
+                    dead         = attempts + 1 >= :maxAttempts,
+                    next_attempt = now() + (attempts + 1) * make_interval(secs => :backoffSeconds)
+                where id = :id""", nativeQuery = true)
+        void failed(UUID id, String error, int maxAttempts, double backoffSeconds);
+    }
+
+    @Entity
+    @Table(name = "outbox")
+    @NoArgsConstructor
+    static class OutboxEntity extends PersistableEntity<UUID> {
+        @Id
+        private UUID id;
+        private String aggregateId;
+        private String type;
+        private Instant time;
+        @Type(type = "jsonb")
+        @Column(columnDefinition = "jsonb")
+        private JsonNode payload;
+        private int attempts;
+        private Instant nextAttempt;
+        private String lastError;
+        private boolean dead;
+
+        OutboxEntity(String aggregateId, Object event) {
+            this.id = TimeOrderedIds.next();
+            this.aggregateId = aggregateId;
+            this.type = event.getClass().getName();
+            this.time = Instant.now();
+            this.payload = JsonConfiguration.OBJECT_MAPPER.valueToTree(event);
+        }
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        Object event() {
+            try {
+                return JsonConfiguration.OBJECT_MAPPER.treeToValue(payload, Class.forName(type));
+            } catch (JsonProcessingException | ClassNotFoundException e) {
+                throw new IllegalStateException("Cannot read outbox event " + id + " of type " + type, e);
+            }
+        }
+    }
+}
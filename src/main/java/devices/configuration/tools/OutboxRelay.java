@@ -0,0 +1,75 @@
+package devices.configuration.tools;
+
+import devices.configuration.tools.Outbox.OutboxEntity;
+import devices.configuration.tools.Outbox.OutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Relays each outbox event in its own transaction, so a failing listener rolls back only its own event.
+ * Only the oldest live event of an aggregate is relayed, its row lock keeps other nodes
+ * from relaying younger events of the same aggregate until it is delivered or dead.
+ * Failed event is retried with linear backoff and marked dead after {@code outbox.max-attempts},
+ * dead events stay in the outbox with their last error and stop blocking their aggregate.
+ */
+@Slf4j
+@Component
+class OutboxRelay {
+
+    private final OutboxRepository repository;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate transactions;
+    private final int batch;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    OutboxRelay(OutboxRepository repository,
+                ApplicationEventPublisher publisher,
+                TransactionTemplate transactions,
+                @Value("${outbox.batch}") int batch,
+                @Value("${outbox.max-attempts}") int maxAttempts,
+                @Value("${outbox.backoff}") Duration backoff) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactions = transactions;
+        this.batch = batch;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.delay}")
+    void relay() {
+        long relayed;
+        do {
+            List<OutboxEntity> heads = repository.findHeads(batch);
+            relayed = heads.stream()
+                    .filter(head -> relay(head.getId()))
+                    .count();
+        } while (relayed > 0);
+    }
+
+    private boolean relay(UUID id) {
+        try {
+            return Boolean.TRUE.equals(transactions.execute(status -> repository.lockHead(id)
+                    .map(entry -> {
+                        publisher.publishEvent(entry.event());
+                        repository.delete(entry);
+                        return true;
+                    })
+                    .orElse(false)));
+        } catch (RuntimeException e) {
+            log.warn("Relaying outbox event {} failed", id, e);
+            transactions.executeWithoutResult(status ->
+                    repository.failed(id, String.valueOf(e), maxAttempts, backoff.toMillis() / 1000.0));
+            return false;
+        }
+    }
+}
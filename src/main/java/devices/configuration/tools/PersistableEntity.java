@@ -0,0 +1,30 @@
+package devices.configuration.tools;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.MappedSuperclass;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
+
+/**
+ * Base of entities with ids assigned by the application, tells Spring Data that a fresh instance is new,
+ * so saving it inserts right away instead of selecting the row to merge it.
+ */
+@MappedSuperclass
+public abstract class PersistableEntity<ID> implements Persistable<ID> {
+
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void persisted() {
+        this.persisted = true;
+    }
+}
@@ -0,0 +1,57 @@
+package devices.configuration.tools;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+@Configuration
+@ConditionalOnProperty(name = "execution.virtual-threads", havingValue = "true")
+class VirtualThreadsConfiguration {
+
+    @Bean
+    TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandler() {
+        return handler -> handler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    TaskScheduler taskScheduler() {
+        return new ConcurrentTaskScheduler(
+                Executors.newScheduledThreadPool(1, Thread.ofVirtual().name("scheduling-", 0).factory())
+        );
+    }
+
+    /**
+     * Pool stays a plain {@link HikariDataSource} bean, bound to {@code spring.datasource.hikari}
+     * and visible to pool metrics and health, only its consumers get it behind the bulkhead.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    HikariDataSource connectionPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        if (StringUtils.hasText(properties.getName())) {
+            pool.setPoolName(properties.getName());
+        }
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource connectionPool) {
+        return new BulkheadDataSource(connectionPool,
+                connectionPool.getMaximumPoolSize(),
+                connectionPool.getConnectionTimeout());
+    }
+}
@@ -0,0 +1,26 @@
+create table if not exists device_snapshots
+(
+    device_id varchar(255) not null,
+    time      timestamp,
+    snapshot  jsonb,
+    constraint device_snapshots_pkey primary key (device_id)
+);
+
+create table if not exists device_event_counts
+(
+    device_id      varchar(255) not null,
+    since_snapshot integer      not null,
+    constraint device_event_counts_pkey primary key (device_id)
+);
+
+insert into device_event_counts (device_id, since_snapshot)
+select e.device_id, count(*)
+from device_events e
+         left join device_snapshots s on s.device_id = e.device_id
+where s.time is null
+   or e.time > s.time
+group by e.device_id
+on conflict (device_id) do nothing;
+
+create index if not exists device_event_counts_since_snapshot_idx
+    on device_event_counts (since_snapshot);
@@ -0,0 +1,8 @@
+-- pending rows keep their order, zero padded ids sort before any time ordered id
+alter table outbox
+    alter column id drop default;
+
+alter table outbox
+    alter column id type uuid using lpad(to_hex(id), 32, '0')::uuid;
+
+drop sequence if exists outbox_id_seq;
@@ -0,0 +1,11 @@
+create table if not exists provider_versions
+(
+    provider varchar(255) not null,
+    version  bigint       not null,
+    constraint provider_versions_pkey primary key (provider)
+);
+
+insert into provider_versions (provider, version)
+select distinct coalesce(provider, ''), 1
+from device_reads
+on conflict (provider) do nothing;
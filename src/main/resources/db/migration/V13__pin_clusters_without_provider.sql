@@ -0,0 +1,28 @@
+insert into pin_clusters (provider, zoom, x, y, count, available, charging, faulted, latitude_sum, longitude_sum)
+select '', zoom, x, y,
+       count(*), sum(available), sum(charging), sum(faulted),
+       sum(latitude), sum(longitude)
+from (select zoom,
+             least(floor((longitude + 180) / 360 * (1 << zoom))::integer, (1 << zoom) - 1) as x,
+             greatest(0, least(floor((1 - ln(tan(radians(clamped)) + 1 / cos(radians(clamped))) / pi()) / 2
+                                     * (1 << zoom))::integer, (1 << zoom) - 1))            as y,
+             latitude,
+             longitude,
+             (select count(*) from jsonb_array_elements_text(pin -> 'statuses') s where s = 'AVAILABLE') as available,
+             (select count(*) from jsonb_array_elements_text(pin -> 'statuses') s where s = 'CHARGING')  as charging,
+             (select count(*) from jsonb_array_elements_text(pin -> 'statuses') s where s = 'FAULTED')   as faulted
+      from device_reads
+               cross join generate_series(0, 15) as zoom
+               cross join lateral (select greatest(-85.05112878, least(85.05112878, latitude)) as clamped) c
+      where provider is null
+        and pin is not null
+        and latitude is not null
+        and longitude is not null) tiles
+group by zoom, x, y
+on conflict (provider, zoom, x, y) do update
+set count         = pin_clusters.count + excluded.count,
+    available     = pin_clusters.available + excluded.available,
+    charging      = pin_clusters.charging + excluded.charging,
+    faulted       = pin_clusters.faulted + excluded.faulted,
+    latitude_sum  = pin_clusters.latitude_sum + excluded.latitude_sum,
+    longitude_sum = pin_clusters.longitude_sum + excluded.longitude_sum;
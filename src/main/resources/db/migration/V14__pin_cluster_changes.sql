@@ -0,0 +1,14 @@
+create table if not exists pin_cluster_changes
+(
+    id            bigint generated always as identity,
+    provider      varchar(255)     not null,
+    x             integer          not null,
+    y             integer          not null,
+    count         bigint           not null,
+    available     bigint           not null,
+    charging      bigint           not null,
+    faulted       bigint           not null,
+    latitude_sum  double precision not null,
+    longitude_sum double precision not null,
+    constraint pin_cluster_changes_pkey primary key (id)
+);
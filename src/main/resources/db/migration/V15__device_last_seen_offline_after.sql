@@ -0,0 +1,13 @@
+-- existing rows use the default interval and missed heartbeats configured when this was written (PT30M, 3),
+-- every later write recomputes the column from configuration
+alter table device_last_seen
+    add column if not exists offline_after timestamp;
+
+update device_last_seen
+set offline_after = last_seen + make_interval(secs => coalesce(interval_seconds, 1800) * 3)
+where offline_after is null;
+
+drop index if exists device_last_seen_last_seen_idx;
+
+create index if not exists device_last_seen_offline_after_idx
+    on device_last_seen (offline_after);
@@ -0,0 +1,34 @@
+-- events of a device are ordered by a sequence number assigned while its event counter row is locked,
+-- existing events are numbered in the order of their time
+create sequence if not exists device_events_sequence_number_seq;
+
+alter table device_events
+    add column if not exists sequence_number bigint;
+
+with numbered as (select id, time, row_number() over (order by time, id) as sequence_number
+                  from device_events)
+update device_events e
+set sequence_number = numbered.sequence_number
+from numbered
+where e.id = numbered.id
+  and e.time = numbered.time;
+
+select setval('device_events_sequence_number_seq',
+              coalesce((select max(sequence_number) from device_events), 0) + 1, false);
+
+alter table device_events
+    alter column sequence_number set default nextval('device_events_sequence_number_seq'),
+    alter column sequence_number set not null;
+
+create index if not exists device_events_device_id_type_sequence_number_idx
+    on device_events (device_id, type, sequence_number desc);
+
+-- events taken at the very time of a snapshot are replayed over it, as they were before
+alter table device_snapshots
+    add column if not exists sequence_number bigint;
+
+update device_snapshots s
+set sequence_number = (select max(e.sequence_number)
+                       from device_events e
+                       where e.device_id = s.device_id
+                         and e.time < s.time);
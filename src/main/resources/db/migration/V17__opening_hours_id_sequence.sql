@@ -0,0 +1,7 @@
+-- identity ids are read back insert by insert, ids allocated from a pooled sequence let inserts go in JDBC batches
+alter table opening_hours
+    alter column id drop identity if exists;
+
+create sequence if not exists opening_hours_id_seq increment by 50;
+
+select setval('opening_hours_id_seq', coalesce((select max(id) from opening_hours), 0) + 50);
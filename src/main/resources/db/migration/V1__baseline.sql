@@ -0,0 +1,91 @@
+create table if not exists device_document
+(
+    device_id varchar(255) not null,
+    version   bigint       not null,
+    device    jsonb,
+    constraint device_document_pkey primary key (device_id)
+);
+
+create table if not exists device_events
+(
+    id        uuid not null,
+    device_id varchar(255),
+    type      varchar(255),
+    time      timestamp,
+    event     jsonb,
+    constraint device_events_pkey primary key (id)
+);
+
+create table if not exists device
+(
+    device_id      varchar(255) not null,
+    version        bigint,
+    operator       varchar(255),
+    provider       varchar(255),
+    street         varchar(255),
+    house_number   varchar(255),
+    city           varchar(255),
+    postal_code    varchar(255),
+    state          varchar(255),
+    country        varchar(255),
+    longitude      numeric(18, 15),
+    latitude       numeric(18, 15),
+    auto_start     boolean      not null,
+    remote_control boolean      not null,
+    billing        boolean      not null,
+    reimbursement  boolean      not null,
+    show_on_map    boolean      not null,
+    public_access  boolean      not null,
+    constraint device_pkey primary key (device_id)
+);
+
+create table if not exists opening_hours
+(
+    id          bigint  not null,
+    device_id   varchar(255),
+    day_of_week varchar(255),
+    open24h     boolean not null,
+    closed      boolean not null,
+    open        integer,
+    close       integer,
+    constraint opening_hours_pkey primary key (id)
+);
+
+create table if not exists installation_events
+(
+    id        uuid not null,
+    order_id  varchar(255),
+    device_id varchar(255),
+    type      varchar(255),
+    time      timestamp,
+    event     jsonb,
+    constraint installation_events_pkey primary key (id)
+);
+
+create table if not exists device_reads
+(
+    device_id varchar(255) not null,
+    version   bigint,
+    operator  varchar(255),
+    provider  varchar(255),
+    pin       jsonb,
+    summary   jsonb,
+    details   jsonb,
+    statuses  jsonb,
+    boot      jsonb,
+    constraint device_reads_pkey primary key (device_id)
+);
+
+create table if not exists known_device
+(
+    device_id varchar(255) not null,
+    state     varchar(255),
+    constraint known_device_pkey primary key (device_id)
+);
+
+create table if not exists features_configuration
+(
+    name          varchar(255) not null,
+    configuration jsonb,
+    constraint features_configuration_pkey primary key (name)
+);
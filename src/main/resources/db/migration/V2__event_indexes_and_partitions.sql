@@ -0,0 +1,76 @@
+create or replace function create_monthly_partitions(parent text, since date, months_ahead integer)
+    returns void
+    language plpgsql as
+$$
+declare
+    partition_month date := date_trunc('month', since);
+    last_month      date := date_trunc('month', now()) + make_interval(months => months_ahead);
+begin
+    while partition_month <= last_month
+        loop
+            execute format('create table if not exists %I partition of %I for values from (%L) to (%L)',
+                           parent || '_' || to_char(partition_month, 'YYYY_MM'), parent,
+                           partition_month, partition_month + interval '1 month');
+            partition_month := partition_month + interval '1 month';
+        end loop;
+end
+$$;
+
+-- device_events
+alter table device_events rename to device_events_unpartitioned;
+alter table device_events_unpartitioned rename constraint device_events_pkey to device_events_unpartitioned_pkey;
+
+create table device_events
+(
+    id        uuid      not null,
+    device_id varchar(255),
+    type      varchar(255),
+    time      timestamp not null,
+    event     jsonb,
+    constraint device_events_pkey primary key (id, time)
+) partition by range (time);
+
+create table device_events_default partition of device_events default;
+
+select create_monthly_partitions('device_events',
+                                 coalesce((select min(time) from device_events_unpartitioned), now())::date, 3);
+
+insert into device_events (id, device_id, type, time, event)
+select id, device_id, type, coalesce(time, 'epoch'::timestamp), event
+from device_events_unpartitioned;
+
+drop table device_events_unpartitioned;
+
+create index device_events_device_id_type_time_idx on device_events (device_id, type, time desc);
+
+-- installation_events
+alter table installation_events rename to installation_events_unpartitioned;
+alter table installation_events_unpartitioned rename constraint installation_events_pkey to installation_events_unpartitioned_pkey;
+
+create table installation_events
+(
+    id        uuid      not null,
+    order_id  varchar(255),
+    device_id varchar(255),
+    type      varchar(255),
+    time      timestamp not null,
+    event     jsonb,
+    constraint installation_events_pkey primary key (id, time)
+) partition by range (time);
+
+create table installation_events_default partition of installation_events default;
+
+select create_monthly_partitions('installation_events',
+                                 coalesce((select min(time) from installation_events_unpartitioned), now())::date, 3);
+
+insert into installation_events (id, order_id, device_id, type, time, event)
+select id, order_id, device_id, type, coalesce(time, 'epoch'::timestamp), event
+from installation_events_unpartitioned;
+
+drop table installation_events_unpartitioned;
+
+create index installation_events_device_id_type_time_idx on installation_events (device_id, type, time desc);
+create index installation_events_order_id_type_time_idx on installation_events (order_id, type, time desc);
+
+-- device_reads
+create index device_reads_provider_idx on device_reads (provider);
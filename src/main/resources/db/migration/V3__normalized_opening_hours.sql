@@ -0,0 +1,7 @@
+alter table device
+    add column if not exists public_access boolean not null default false;
+
+alter table opening_hours
+    alter column id add generated by default as identity;
+
+create unique index opening_hours_device_id_day_of_week_idx on opening_hours (device_id, day_of_week);
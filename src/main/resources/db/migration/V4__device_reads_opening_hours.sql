@@ -0,0 +1,2 @@
+alter table device_reads
+    add column if not exists opening_hours bytea;
@@ -0,0 +1,68 @@
+create or replace function geohash_encode(lat double precision, lon double precision, chars integer)
+    returns text
+    language plpgsql
+    immutable as
+$$
+declare
+    base32 constant text             := '0123456789bcdefghjkmnpqrstuvwxyz';
+    south           double precision := -90;
+    north           double precision := 90;
+    west            double precision := -180;
+    east            double precision := 180;
+    middle          double precision;
+    hash            text             := '';
+    bits            integer          := 0;
+    bit_count       integer          := 0;
+    even            boolean          := true;
+begin
+    while length(hash) < chars
+        loop
+            if even then
+                middle := (west + east) / 2;
+                if lon >= middle then
+                    bits := bits * 2 + 1;
+                    west := middle;
+                else
+                    bits := bits * 2;
+                    east := middle;
+                end if;
+            else
+                middle := (south + north) / 2;
+                if lat >= middle then
+                    bits := bits * 2 + 1;
+                    south := middle;
+                else
+                    bits := bits * 2;
+                    north := middle;
+                end if;
+            end if;
+            even := not even;
+            bit_count := bit_count + 1;
+            if bit_count = 5 then
+                hash := hash || substr(base32, bits + 1, 1);
+                bits := 0;
+                bit_count := 0;
+            end if;
+        end loop;
+    return hash;
+end
+$$;
+
+alter table device_reads
+    add column if not exists latitude  double precision,
+    add column if not exists longitude double precision,
+    add column if not exists geohash   varchar(6);
+
+update device_reads
+set latitude  = (details -> 'location' -> 'coordinates' ->> 'latitude')::double precision,
+    longitude = (details -> 'location' -> 'coordinates' ->> 'longitude')::double precision
+where details -> 'location' -> 'coordinates' ->> 'latitude' is not null
+  and details -> 'location' -> 'coordinates' ->> 'longitude' is not null;
+
+update device_reads
+set geohash = geohash_encode(latitude, longitude, 6)
+where latitude is not null;
+
+create index device_reads_provider_geohash6_idx on device_reads (provider, geohash);
+create index device_reads_provider_geohash5_idx on device_reads (provider, left(geohash, 5));
+create index device_reads_provider_geohash4_idx on device_reads (provider, left(geohash, 4));
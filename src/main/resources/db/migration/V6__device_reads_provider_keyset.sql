@@ -0,0 +1 @@
+create index device_reads_provider_device_id_idx on device_reads (provider, device_id);
@@ -0,0 +1,37 @@
+create table if not exists pin_clusters
+(
+    provider      varchar(255)     not null,
+    zoom          smallint         not null,
+    x             integer          not null,
+    y             integer          not null,
+    count         bigint           not null,
+    available     bigint           not null,
+    charging      bigint           not null,
+    faulted       bigint           not null,
+    latitude_sum  double precision not null,
+    longitude_sum double precision not null,
+    constraint pin_clusters_pkey primary key (provider, zoom, x, y)
+);
+
+insert into pin_clusters (provider, zoom, x, y, count, available, charging, faulted, latitude_sum, longitude_sum)
+select provider, zoom, x, y,
+       count(*), sum(available), sum(charging), sum(faulted),
+       sum(latitude), sum(longitude)
+from (select provider,
+             zoom,
+             least(floor((longitude + 180) / 360 * (1 << zoom))::integer, (1 << zoom) - 1) as x,
+             greatest(0, least(floor((1 - ln(tan(radians(clamped)) + 1 / cos(radians(clamped))) / pi()) / 2
+                                     * (1 << zoom))::integer, (1 << zoom) - 1))            as y,
+             latitude,
+             longitude,
+             (select count(*) from jsonb_array_elements_text(pin -> 'statuses') s where s = 'AVAILABLE') as available,
+             (select count(*) from jsonb_array_elements_text(pin -> 'statuses') s where s = 'CHARGING')  as charging,
+             (select count(*) from jsonb_array_elements_text(pin -> 'statuses') s where s = 'FAULTED')   as faulted
+      from device_reads
+               cross join generate_series(0, 15) as zoom
+               cross join lateral (select greatest(-85.05112878, least(85.05112878, latitude)) as clamped) c
+      where provider is not null
+        and pin is not null
+        and latitude is not null
+        and longitude is not null) tiles
+group by provider, zoom, x, y;
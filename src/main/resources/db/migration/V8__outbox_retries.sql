@@ -0,0 +1,18 @@
+create table if not exists outbox
+(
+    id      bigserial not null,
+    type    varchar(255),
+    time    timestamp,
+    payload jsonb,
+    constraint outbox_pkey primary key (id)
+);
+
+alter table outbox
+    add column if not exists aggregate_id varchar(255),
+    add column if not exists attempts     integer not null default 0,
+    add column if not exists next_attempt timestamp,
+    add column if not exists last_error   text,
+    add column if not exists dead         boolean not null default false;
+
+create index if not exists outbox_live_aggregate_idx
+    on outbox (aggregate_id, id) where not dead;
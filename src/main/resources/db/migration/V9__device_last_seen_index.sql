@@ -0,0 +1,10 @@
+create table if not exists device_last_seen
+(
+    device_id        varchar(255) not null,
+    last_seen        timestamp,
+    interval_seconds integer,
+    constraint device_last_seen_pkey primary key (device_id)
+);
+
+create index if not exists device_last_seen_last_seen_idx
+    on device_last_seen (last_seen);
@@ -17,7 +17,7 @@ public class ArchitectureOfDeviceContextTest {
     public static final String PACKAGE = "devices.configuration.device";
 
     public static final DescribedPredicate<JavaClass> sharedKernelExposed = belongToAnyOf(
-            UpdateDevice.class, DeviceConfiguration.class,
+            UpdateDevice.class, DeviceConfiguration.class, OpeningHoursMask.class,
             Ownership.class, Location.class
     );
     public static final DescribedPredicate<JavaClass> sharedKernelUsed = belongToAnyOf(
@@ -0,0 +1,109 @@
+package devices.configuration.device;
+
+import devices.configuration.tools.DatabaseNotifications;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CachingDeviceRepositoryTest {
+
+    final DeviceDocumentWithHistoryRepository repository = mock(DeviceDocumentWithHistoryRepository.class);
+    final DatabaseNotifications notifications = mock(DatabaseNotifications.class);
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final CachingDeviceRepository cache = new CachingDeviceRepository(
+            repository, notifications, registry, 100, Duration.ofMinutes(10));
+    final Device device = DeviceFixture.givenDevice();
+    Consumer<String> notified;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void listen() {
+        cache.listenForChanges();
+        ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(notifications).listen(eq(CachingDeviceRepository.CHANNEL), listener.capture());
+        notified = listener.getValue();
+        when(repository.getConfiguration(device.deviceId))
+                .thenReturn(Optional.of(device.toDeviceConfiguration()));
+    }
+
+    @Test
+    void servesRepeatedReadsFromCache() {
+        assertThat(cache.getConfiguration(device.deviceId)).contains(device.toDeviceConfiguration());
+        assertThat(cache.getConfiguration(device.deviceId)).contains(device.toDeviceConfiguration());
+
+        verify(repository, times(1)).getConfiguration(device.deviceId);
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheUnknownDevice() {
+        assertThat(cache.getConfiguration("unknown")).isEmpty();
+        assertThat(cache.getConfiguration("unknown")).isEmpty();
+
+        verify(repository, times(2)).getConfiguration("unknown");
+    }
+
+    @Test
+    void evictsAndNotifiesOtherNodesOnSave() {
+        cache.getConfiguration(device.deviceId);
+
+        cache.save(device);
+
+        verify(repository).save(device);
+        verify(notifications).notify(CachingDeviceRepository.CHANNEL, device.deviceId);
+        cache.getConfiguration(device.deviceId);
+        verify(repository, times(2)).getConfiguration(device.deviceId);
+    }
+
+    @Test
+    void evictsAndNotifiesOtherNodesOnSaveAll() {
+        cache.getConfiguration(device.deviceId);
+
+        cache.saveAll(List.of(device));
+
+        verify(repository).saveAll(List.of(device));
+        verify(notifications).notify(CachingDeviceRepository.CHANNEL, device.deviceId);
+        cache.getConfiguration(device.deviceId);
+        verify(repository, times(2)).getConfiguration(device.deviceId);
+    }
+
+    @Test
+    void evictsOnConfigurationEvent() {
+        cache.getConfiguration(device.deviceId);
+
+        cache.handle(device.toDeviceConfiguration());
+
+        cache.getConfiguration(device.deviceId);
+        verify(repository, times(2)).getConfiguration(device.deviceId);
+    }
+
+    @Test
+    void evictsOnNotificationFromOtherNode() {
+        cache.getConfiguration(device.deviceId);
+
+        notified.accept(device.deviceId);
+
+        cache.getConfiguration(device.deviceId);
+        verify(repository, times(2)).getConfiguration(device.deviceId);
+    }
+
+    @Test
+    void evictsEverythingWhenNotificationsWereLost() {
+        cache.getConfiguration(device.deviceId);
+
+        notified.accept(null);
+
+        cache.getConfiguration(device.deviceId);
+        verify(repository, times(2)).getConfiguration(device.deviceId);
+    }
+}
@@ -0,0 +1,151 @@
+package devices.configuration.device;
+
+import devices.configuration.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class DeviceBulkControllerTest {
+
+    private static final String SETTINGS = """
+            {"settings": {"autoStart": true}}""";
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    DeviceService service;
+
+    @Test
+    void reportsEachDeviceOfChunkRolledBackByConflict() throws Exception {
+        when(service.update(anyMap()))
+                .thenThrow(new OptimisticLockingFailureException("device-2 modified concurrently"));
+        when(service.update(eq("device-1"), any(UpdateDevice.class)))
+                .thenReturn(Optional.of(DeviceFixture.givenDeviceConfiguration("device-1")));
+        when(service.update(eq("device-2"), any(UpdateDevice.class)))
+                .thenThrow(new OptimisticLockingFailureException("device-2 modified concurrently"));
+        when(service.update(eq("device-3"), any(UpdateDevice.class)))
+                .thenReturn(Optional.empty());
+
+        String results = patchDevices("device-1", "device-2", "device-3");
+
+        assertThat(results.lines())
+                .extracting(line -> line.replaceAll(".*\"deviceId\":\"([^\"]+)\",\"status\":\"([A-Z_]+)\".*", "$1 $2"))
+                .containsExactly("device-1 UPDATED", "device-2 CONFLICT", "device-3 NOT_FOUND");
+    }
+
+    @Test
+    void keepsStreamingAfterUnexpectedFailureOfOneDevice() throws Exception {
+        when(service.update(anyMap()))
+                .thenThrow(new IllegalStateException("device-1 is broken"));
+        when(service.update(eq("device-1"), any(UpdateDevice.class)))
+                .thenThrow(new IllegalStateException("device-1 is broken"));
+        when(service.update(eq("device-2"), any(UpdateDevice.class)))
+                .thenReturn(Optional.of(DeviceFixture.givenDeviceConfiguration("device-2")));
+
+        String results = patchDevices("device-1", "device-2");
+
+        assertThat(results.lines())
+                .extracting(line -> line.replaceAll(".*\"deviceId\":\"([^\"]+)\",\"status\":\"([A-Z_]+)\".*", "$1 $2"))
+                .containsExactly("device-1 FAILED", "device-2 UPDATED");
+        verify(service).update(eq("device-2"), any(UpdateDevice.class));
+    }
+
+    @Test
+    void rejectsEmptyFilter() throws Exception {
+        mvc.perform(patch("/devices")
+                        .with(csrf())
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_NDJSON)
+                        .content("""
+                                {"filter": {}, "update": %s}""".formatted(SETTINGS)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void rejectsDeviceListedTwice() throws Exception {
+        patchRequest("device-1", "device-2", "device-1")
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void rejectsMoreDevicesThanAllowed() throws Exception {
+        patchRequest("device-1", "device-2", "device-3", "device-4")
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void rejectsFilterMatchingMoreDevicesThanAllowed() throws Exception {
+        when(service.findDeviceIds(any(DeviceFilter.class)))
+                .thenReturn(List.of("device-1", "device-2", "device-3", "device-4"));
+
+        mvc.perform(patch("/devices")
+                        .with(csrf())
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_NDJSON)
+                        .content("""
+                                {"filter": {"provider": "public-devices"}, "update": %s}""".formatted(SETTINGS)))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).update(anyMap());
+    }
+
+    private String patchDevices(String... deviceIds) throws Exception {
+        MvcResult started = patchRequest(deviceIds)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private ResultActions patchRequest(String... deviceIds) throws Exception {
+        StringBuilder devices = new StringBuilder();
+        for (String deviceId : deviceIds) {
+            devices.append(devices.isEmpty() ? "" : ",")
+                    .append("""
+                            {"deviceId": "%s", "update": %s}""".formatted(deviceId, SETTINGS));
+        }
+        return mvc.perform(patch("/devices")
+                .with(csrf())
+                .contentType(APPLICATION_JSON)
+                .accept(APPLICATION_NDJSON)
+                .content("""
+                        {"devices": [%s]}""".formatted(devices)));
+    }
+}
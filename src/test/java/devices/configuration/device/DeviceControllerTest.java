@@ -0,0 +1,59 @@
+package devices.configuration.device;
+
+import devices.configuration.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class DeviceControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    DeviceService service;
+
+    @Test
+    void answersConflictWhenDeviceWasModifiedConcurrently() throws Exception {
+        when(service.update(eq("device-1"), any(UpdateDevice.class)))
+                .thenThrow(new OptimisticLockingFailureException("device-1 modified concurrently"));
+
+        mvc.perform(patch("/devices/device-1")
+                        .with(csrf())
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_JSON)
+                        .content("""
+                                {"settings": {"autoStart": true}}"""))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void answersNotFoundForUnknownDevice() throws Exception {
+        when(service.update(eq("device-2"), any(UpdateDevice.class)))
+                .thenReturn(Optional.empty());
+
+        mvc.perform(patch("/devices/device-2")
+                        .with(csrf())
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_JSON)
+                        .content("""
+                                {"settings": {"autoStart": true}}"""))
+                .andExpect(status().isNotFound());
+    }
+}
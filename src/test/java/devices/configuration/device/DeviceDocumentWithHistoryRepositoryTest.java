@@ -6,26 +6,29 @@ import devices.configuration.device.DomainEvent.LocationUpdated;
 import devices.configuration.device.DomainEvent.OwnershipUpdated;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.test.context.event.ApplicationEvents;
-import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 import static devices.configuration.TestTransaction.transactional;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 @IntegrationTest
 @Transactional
-@RecordApplicationEvents
 class DeviceDocumentWithHistoryRepositoryTest {
 
     @Autowired
     DeviceDocumentWithHistoryRepository repository;
 
     @Autowired
-    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
-    private ApplicationEvents emitted;
+    DeliveredEvents delivered;
 
     @Test
     void saveAndGetDevice() {
@@ -73,12 +76,30 @@ class DeviceDocumentWithHistoryRepositoryTest {
         Device saved = DeviceFixture.givenStepByStepConfiguredDevice();
         transactional(() -> repository.save(saved));
 
-        assertThat(emitted.stream(DomainEvent.class))
-                .containsExactly(
-                        new OwnershipUpdated(saved.deviceId, DeviceFixture.ownership()),
-                        new LocationUpdated(saved.deviceId, DeviceFixture.location())
-                );
-        assertThat(emitted.stream(DeviceConfiguration.class))
-                .containsExactly(saved.toDeviceConfiguration());
+        await().untilAsserted(() -> {
+            assertThat(delivered.of(DomainEvent.class).filter(event -> event.deviceId().equals(saved.deviceId)))
+                    .containsExactly(
+                            new OwnershipUpdated(saved.deviceId, DeviceFixture.ownership()),
+                            new LocationUpdated(saved.deviceId, DeviceFixture.location())
+                    );
+            assertThat(delivered.of(DeviceConfiguration.class).filter(config -> config.deviceId().equals(saved.deviceId)))
+                    .containsExactly(saved.toDeviceConfiguration());
+        });
+    }
+
+    @TestConfiguration
+    static class DeliveredEvents {
+        private final List<Object> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void delivered(PayloadApplicationEvent<?> event) {
+            events.add(event.getPayload());
+        }
+
+        <T> Stream<T> of(Class<T> type) {
+            return events.stream()
+                    .filter(type::isInstance)
+                    .map(type::cast);
+        }
     }
 }
@@ -1,8 +1,10 @@
 package devices.configuration.device;
 
 import devices.configuration.IntegrationTest;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -16,6 +18,8 @@ class DeviceEventSourcingRepositoryTest {
 
     @Autowired
     DeviceEventSourcingRepository repository;
+    @Autowired
+    JdbcTemplate jdbc;
 
     @Test
     void saveAndGetDevice() {
@@ -57,4 +61,88 @@ class DeviceEventSourcingRepositoryTest {
                 }
                 """);
     }
+
+    @Test
+    void readSnapshotAndEventsTakenAfterIt() {
+        Device saved = DeviceFixture.givenStepByStepConfiguredDevice();
+        transactional(() -> repository.save(saved));
+        for (int i = 0; i < 6; i++) {
+            boolean autoStart = i % 2 == 0;
+            saved.updateSettings(Settings.builder().autoStart(autoStart).build());
+            transactional(() -> repository.save(saved));
+        }
+        saved.updateLocation(DeviceFixture.someOtherLocation());
+        transactional(() -> repository.save(saved));
+
+        Optional<Device> read = transactional(() -> repository.get(saved.deviceId));
+
+        assertThat(read).isExactlyLike(saved);
+    }
+
+    @Test
+    void snapshotsWhenEnoughEventsAppendedSinceLastSnapshot() {
+        Device saved = DeviceFixture.givenStepByStepConfiguredDevice();
+        transactional(() -> repository.save(saved));
+        for (int i = 0; i < 6; i++) {
+            saved.updateSettings(Settings.builder().autoStart(i % 2 == 0).build());
+            transactional(() -> repository.save(saved));
+        }
+
+        Assertions.assertThat(snapshotTaken(saved.deviceId)).isTrue();
+        Assertions.assertThat(eventsSinceSnapshot(saved.deviceId)).isLessThan(5);
+    }
+
+    @Test
+    void backfillsSnapshotsOfDevicesWithLongHistory() {
+        Device saved = DeviceFixture.givenStepByStepConfiguredDevice();
+        transactional(() -> repository.save(saved));
+        transactional(() -> jdbc.update(
+                "update device_event_counts set since_snapshot = 5 where device_id = ?", saved.deviceId));
+
+        repository.backfillSnapshots();
+
+        Assertions.assertThat(snapshotTaken(saved.deviceId)).isTrue();
+        Assertions.assertThat(eventsSinceSnapshot(saved.deviceId)).isZero();
+        assertThat(transactional(() -> repository.get(saved.deviceId))).isExactlyLike(saved);
+    }
+
+    @Test
+    void readsEventsAppendedAfterSnapshotRegardlessOfTheirTime() {
+        Device saved = DeviceFixture.givenStepByStepConfiguredDevice();
+        transactional(() -> repository.save(saved));
+        transactional(() -> jdbc.update(
+                "update device_event_counts set since_snapshot = 5 where device_id = ?", saved.deviceId));
+        repository.backfillSnapshots();
+        saved.updateLocation(DeviceFixture.someOtherLocation());
+        transactional(() -> repository.save(saved));
+        transactional(() -> jdbc.update("""
+                update device_events
+                set time = 'epoch'
+                where device_id = ? and type = 'LocationUpdated'""", saved.deviceId));
+
+        assertThat(transactional(() -> repository.get(saved.deviceId))).isExactlyLike(saved);
+    }
+
+    private boolean snapshotTaken(String deviceId) {
+        return transactional(() -> jdbc.queryForObject(
+                "select exists(select 1 from device_snapshots where device_id = ?)", Boolean.class, deviceId));
+    }
+
+    private int eventsSinceSnapshot(String deviceId) {
+        return transactional(() -> jdbc.queryForObject(
+                "select since_snapshot from device_event_counts where device_id = ?", Integer.class, deviceId));
+    }
+
+    @Test
+    void findsIdsByCurrentOwnership() {
+        Device device = DeviceFixture.givenStepByStepConfiguredDevice();
+        transactional(() -> repository.save(device));
+        device.assignTo(DeviceFixture.someOtherOwnership());
+        transactional(() -> repository.save(device));
+
+        Assertions.assertThat(transactional(() -> repository.findIds(new DeviceFilter("Devicex.pl", "public-devices"))))
+                .contains(device.deviceId);
+        Assertions.assertThat(transactional(() -> repository.findIds(new DeviceFilter("Devicex.nl", null))))
+                .doesNotContain(device.deviceId);
+    }
 }
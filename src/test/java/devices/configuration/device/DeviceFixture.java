@@ -34,11 +34,35 @@ public class DeviceFixture {
 
     @NotNull
     public static DeviceConfiguration givenDeviceConfiguration(String deviceId) {
+        return givenDeviceConfiguration(deviceId, ownership());
+    }
+
+    @NotNull
+    public static DeviceConfiguration givenDeviceConfiguration(String deviceId, Ownership ownership) {
+        return givenDeviceConfiguration(deviceId, ownership, location());
+    }
+
+    @NotNull
+    public static DeviceConfiguration givenDeviceConfiguration(String deviceId, Ownership ownership, Location location) {
+        return new DeviceConfiguration(
+                deviceId,
+                ownership,
+                location,
+                OpeningHours.alwaysOpened(),
+                Settings.defaultSettings(),
+                Violations.builder().build(),
+                Visibility.basedOn(true, false)
+        );
+    }
+
+    @NotNull
+    public static DeviceConfiguration givenClosedDeviceConfiguration(String deviceId) {
+        OpeningHours.OpeningTime closed = new OpeningHours.OpeningTime.Closed24h();
         return new DeviceConfiguration(
                 deviceId,
                 ownership(),
                 location(),
-                OpeningHours.alwaysOpened(),
+                OpeningHours.openAt(closed, closed, closed, closed, closed, closed, closed),
                 Settings.defaultSettings(),
                 Violations.builder().build(),
                 Visibility.basedOn(true, false)
@@ -1,11 +1,19 @@
 package devices.configuration.device;
 
 import devices.configuration.IntegrationTest;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static devices.configuration.JsonAssert.assertThat;
 import static devices.configuration.TestTransaction.transactional;
@@ -16,6 +24,10 @@ class DeviceNormalizingRepositoryTest {
 
     @Autowired
     DeviceNormalizingRepository repository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    JdbcTemplate jdbc;
 
     @Test
     void saveAndGetDevice() {
@@ -56,4 +68,92 @@ class DeviceNormalizingRepositoryTest {
                 }
                 """);
     }
+
+    @Test
+    void findsIdsByCurrentOwnership() {
+        Device device = DeviceFixture.givenDevice();
+        transactional(() -> repository.save(device));
+        device.assignTo(DeviceFixture.someOtherOwnership());
+        transactional(() -> repository.save(device));
+
+        Assertions.assertThat(transactional(() -> repository.findIds(new DeviceFilter("Devicex.pl", "public-devices"))))
+                .contains(device.deviceId);
+        Assertions.assertThat(transactional(() -> repository.findIds(new DeviceFilter("Devicex.nl", null))))
+                .doesNotContain(device.deviceId);
+    }
+
+    @Test
+    void getsAllDevicesWithOpeningHoursInOneQuery() {
+        Device first = DeviceFixture.givenDevice();
+        first.updateOpeningHours(DeviceFixture.closedAtWeekend());
+        Device second = DeviceFixture.givenDevice();
+        transactional(() -> repository.saveAll(List.of(first, second)));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        Map<String, Device> read = transactional(() -> repository.getAll(List.of(first.deviceId, second.deviceId, "unknown")));
+
+        statistics.setStatisticsEnabled(false);
+        Assertions.assertThat(read).containsOnlyKeys(first.deviceId, second.deviceId);
+        assertThat(read.get(first.deviceId)).isExactlyLike(first);
+        assertThat(read.get(second.deviceId)).isExactlyLike(second);
+        Assertions.assertThat(statistics.getCollectionStatistics(
+                        DeviceNormalizingRepository.DeviceEntity.class.getName() + ".openingHours")
+                .getFetchCount()).isZero();
+    }
+
+    @Test
+    void updatesOnlyChangedOpeningHoursAndRemovesOrphans() {
+        Device device = DeviceFixture.givenDevice();
+        device.updateOpeningHours(DeviceFixture.closedAtWeekend());
+        transactional(() -> repository.save(device));
+        Map<String, Long> stored = openingHoursIds(device.deviceId);
+
+        device.updateOpeningHours(OpeningHours.openAt(
+                OpeningHours.OpeningTime.opened(8, 16),
+                OpeningHours.OpeningTime.opened24h(),
+                OpeningHours.OpeningTime.opened24h(),
+                OpeningHours.OpeningTime.opened24h(),
+                OpeningHours.OpeningTime.opened24h(),
+                OpeningHours.OpeningTime.closed24h(),
+                OpeningHours.OpeningTime.closed24h()
+        ));
+        transactional(() -> repository.save(device));
+
+        Assertions.assertThat(openingHoursIds(device.deviceId)).isEqualTo(stored);
+        Assertions.assertThat(jdbc.queryForMap(
+                        "select open, close from opening_hours where device_id = ? and day_of_week = 'monday'", device.deviceId))
+                .containsEntry("open", 8)
+                .containsEntry("close", 16);
+        assertThat(transactional(() -> repository.get(device.deviceId))).isExactlyLike(device);
+
+        device.updateOpeningHours(OpeningHours.alwaysOpened());
+        transactional(() -> repository.save(device));
+
+        Assertions.assertThat(openingHoursIds(device.deviceId)).isEmpty();
+        assertThat(transactional(() -> repository.get(device.deviceId))).isExactlyLike(device);
+    }
+
+    @Test
+    void readsDayMissingFromOpeningHoursAsClosed() {
+        Device device = DeviceFixture.givenDevice();
+        device.updateOpeningHours(DeviceFixture.closedAtWeekend());
+        transactional(() -> repository.save(device));
+        transactional(() -> jdbc.update(
+                "delete from opening_hours where device_id = ? and day_of_week = 'monday'", device.deviceId));
+
+        Assertions.assertThat(transactional(() -> repository.get(device.deviceId)))
+                .get()
+                .extracting(read -> read.toDeviceConfiguration().openingHours().opened().monday())
+                .isEqualTo(new OpeningHours.OpeningTime.Closed24h());
+    }
+
+    private Map<String, Long> openingHoursIds(String deviceId) {
+        return jdbc.queryForList("select day_of_week, id from opening_hours where device_id = ?", deviceId).stream()
+                .collect(Collectors.toMap(
+                        row -> (String) row.get("day_of_week"),
+                        row -> ((Number) row.get("id")).longValue()
+                ));
+    }
 }
@@ -4,6 +4,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -109,5 +110,16 @@ class DeviceServiceTest {
         public void save(Device device) {
             devices.put(device.deviceId, device);
         }
+
+        @Override
+        public List<String> findIds(DeviceFilter filter) {
+            return devices.values().stream()
+                    .map(Device::toDeviceConfiguration)
+                    .filter(device -> filter.operator() == null || filter.operator().equals(device.ownership().operator()))
+                    .filter(device -> filter.provider() == null || filter.provider().equals(device.ownership().provider()))
+                    .map(DeviceConfiguration::deviceId)
+                    .sorted()
+                    .toList();
+        }
     }
 }
@@ -0,0 +1,126 @@
+package devices.configuration.device;
+
+import devices.configuration.device.OpeningHours.OpeningTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpeningHoursMaskTest {
+
+    private static final OpeningHours WORKING_HOURS = OpeningHours.openAt(
+            OpeningTime.opened(8, 17),
+            OpeningTime.opened(8, 17),
+            OpeningTime.opened(8, 17),
+            OpeningTime.opened(8, 17),
+            OpeningTime.opened(8, 17),
+            new OpeningTime.Opened24h(),
+            new OpeningTime.Closed24h()
+    );
+
+    @Test
+    void convertsBackToSameOpeningHours() {
+        assertThat(OpeningHoursMask.of(WORKING_HOURS).toOpeningHours())
+                .isEqualTo(WORKING_HOURS);
+        assertThat(OpeningHoursMask.of(OpeningHours.alwaysOpened()).toOpeningHours())
+                .isEqualTo(OpeningHours.alwaysOpened());
+    }
+
+    @Test
+    void survivesByteEncoding() {
+        OpeningHoursMask mask = OpeningHoursMask.of(WORKING_HOURS);
+
+        assertThat(OpeningHoursMask.fromBytes(mask.toBytes()))
+                .isEqualTo(mask);
+    }
+
+    @Test
+    void openWithinTimeSpan() {
+        OpeningHoursMask mask = OpeningHoursMask.of(WORKING_HOURS);
+
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 8, 0))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 16, 59))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 17, 0))).isFalse();
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 7, 59))).isFalse();
+    }
+
+    @Test
+    void followsWholeDays() {
+        OpeningHoursMask mask = OpeningHoursMask.of(WORKING_HOURS);
+
+        assertThat(mask.isOpenAt(at(2022, 1, 8, 12, 0))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 9, 12, 0))).isFalse();
+    }
+
+    @Test
+    void spillsOvernightSpanIntoNextDay() {
+        OpeningHoursMask mask = OpeningHoursMask.of(OpeningHours.openAt(
+                OpeningTime.opened(22, 2),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                OpeningTime.opened(20, 1)
+        ));
+
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 23, 0))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 4, 1, 45))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 4, 2, 0))).isFalse();
+        assertThat(mask.isOpenAt(at(2022, 1, 9, 21, 0))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 0, 30))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 1, 0))).isFalse();
+    }
+
+    @Test
+    void closingAtMidnightEndsSameDay() {
+        OpeningHoursMask mask = OpeningHoursMask.of(OpeningHours.openAt(
+                new OpeningTime.OpenTime(List.of(new OpeningTime.TimeSpan(LocalTime.of(18, 0), LocalTime.MIDNIGHT))),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h()
+        ));
+
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 23, 45))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 4, 0, 0))).isFalse();
+    }
+
+    @Test
+    void roundsClosingTimeUpToQuarterOfHour() {
+        OpeningHoursMask mask = OpeningHoursMask.of(OpeningHours.openAt(
+                new OpeningTime.OpenTime(List.of(new OpeningTime.TimeSpan(LocalTime.of(8, 0), LocalTime.of(16, 5)))),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h(),
+                new OpeningTime.Closed24h()
+        ));
+
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 16, 10))).isTrue();
+        assertThat(mask.isOpenAt(at(2022, 1, 3, 16, 15))).isFalse();
+        assertThat(mask.toOpeningHours().opened().monday())
+                .isEqualTo(new OpeningTime.OpenTime(List.of(
+                        new OpeningTime.TimeSpan(LocalTime.of(8, 0), LocalTime.of(16, 15)))));
+    }
+
+    @Test
+    void convertsWeekOpenAllDaysBackToAlwaysOpened() {
+        OpeningTime opened = new OpeningTime.Opened24h();
+
+        assertThat(OpeningHoursMask.of(OpeningHours.openAt(opened, opened, opened, opened, opened, opened, opened))
+                .toOpeningHours())
+                .isEqualTo(OpeningHours.alwaysOpened());
+    }
+
+    private static ZonedDateTime at(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, ZoneOffset.UTC);
+    }
+}
@@ -18,6 +18,7 @@ public class ArchitectureOfIntervalsContextTest {
     public static final String PACKAGE = "devices.configuration.intervals";
 
     public static final DescribedPredicate<JavaClass> sharedKernelExposed = belongToAnyOf(
+            IntervalRulesSnapshot.class
     );
     public static final DescribedPredicate<JavaClass> sharedKernelUsed = belongToAnyOf(
             BootNotification.class
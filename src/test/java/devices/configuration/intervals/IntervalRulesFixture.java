@@ -29,6 +29,14 @@ public class IntervalRulesFixture {
         );
     }
 
+    public static IntervalRulesSnapshot currentRulesSnapshot(long version) {
+        return new IntervalRulesSnapshot(version, currentRules());
+    }
+
+    public static IntervalRulesSnapshot defaultRulesSnapshot(long version) {
+        return new IntervalRulesSnapshot(version, defaultRules());
+    }
+
     @NotNull
     public static BootNotification.BootNotificationBuilder givenDevice() {
         return CommunicationFixture.boot()
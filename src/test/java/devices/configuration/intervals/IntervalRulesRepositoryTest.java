@@ -1,11 +1,14 @@
 package devices.configuration.intervals;
 
 import devices.configuration.IntegrationTest;
-import devices.configuration.tools.FeatureConfiguration;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.CompletableFuture;
+
 import static devices.configuration.JsonAssert.assertThat;
 import static devices.configuration.TestTransaction.transactional;
 
@@ -13,16 +16,13 @@ import static devices.configuration.TestTransaction.transactional;
 @Transactional
 class IntervalRulesRepositoryTest {
 
-    @Autowired
-    private FeatureConfiguration repository;
-
     @Autowired
     private IntervalRulesDocumentRepository subject;
 
     @Test
     void shouldSaveAndLoadIntervalRules() {
         // when
-        transactional(() -> repository.save("IntervalRules", IntervalRulesFixture.currentRules()));
+        transactional(() -> subject.save(IntervalRulesFixture.currentRules()));
         var result = transactional(() -> subject.get());
 
         // then
@@ -81,4 +81,31 @@ class IntervalRulesRepositoryTest {
                 }
                 """);
     }
+
+    @Test
+    void shouldChangeVersionWhenRulesAreSaved() {
+        transactional(() -> subject.save(IntervalRulesFixture.currentRules()));
+        long loaded = transactional(() -> subject.current().version());
+
+        // when
+        transactional(() -> subject.save(IntervalRules.defaultRules()));
+
+        // then
+        Assertions.assertThat(transactional(() -> subject.current().version())).isGreaterThan(loaded);
+    }
+
+    @Test
+    void shouldNotKeepRulesCachedByConcurrentReadBeforeCommit() throws Exception {
+        transactional(() -> subject.save(IntervalRules.defaultRules()));
+
+        // when
+        TestTransaction.start();
+        subject.save(IntervalRulesFixture.currentRules());
+        CompletableFuture.runAsync(() -> subject.get()).get();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        // then
+        assertThat(subject.get()).hasFieldsLike(IntervalRulesFixture.currentRules());
+    }
 }
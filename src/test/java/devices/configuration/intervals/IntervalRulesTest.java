@@ -3,6 +3,11 @@ package devices.configuration.intervals;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static devices.configuration.intervals.IntervalRules.modelRule;
+
 class IntervalRulesTest {
 
     IntervalRules rules = IntervalRulesFixture.currentRules();
@@ -60,4 +65,44 @@ class IntervalRulesTest {
 
         Assertions.assertThat(interval).hasSeconds(1800);
     }
+
+    @Test
+    void matchFirstDeclaredRuleOfVendor() {
+        var rules = new IntervalRules(List.of(), List.of(
+                modelRule(30, "EV-BOX", Pattern.compile("G3-.*")),
+                modelRule(120, "EV-BOX", Pattern.compile("G3-M5320E-F2.*"))),
+                1800);
+        var boot = IntervalRulesFixture.matchingRegexModelRule();
+
+        var interval = rules.calculateInterval(boot);
+
+        Assertions.assertThat(interval).hasSeconds(30);
+    }
+
+    @Test
+    void matchRegexpWithOptionalCharacterInLiteralPart() {
+        var rules = new IntervalRules(List.of(), List.of(
+                modelRule(30, "EV-BOX", Pattern.compile("G3?-M5320E.*"))),
+                1800);
+        var boot = IntervalRulesFixture.givenDevice()
+                .vendor("EV-BOX")
+                .model("G-M5320E-F2")
+                .build();
+
+        var interval = rules.calculateInterval(boot);
+
+        Assertions.assertThat(interval).hasSeconds(30);
+    }
+
+    @Test
+    void matchRegexpWithAlternative() {
+        var rules = new IntervalRules(List.of(), List.of(
+                modelRule(30, "EV-BOX", Pattern.compile("G2-X|G3-M5320E-F2-5321"))),
+                1800);
+        var boot = IntervalRulesFixture.matchingRegexModelRule();
+
+        var interval = rules.calculateInterval(boot);
+
+        Assertions.assertThat(interval).hasSeconds(30);
+    }
 }
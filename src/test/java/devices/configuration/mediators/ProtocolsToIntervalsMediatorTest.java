@@ -0,0 +1,71 @@
+package devices.configuration.mediators;
+
+import devices.configuration.intervals.IntervalsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static devices.configuration.intervals.IntervalRulesFixture.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ProtocolsToIntervalsMediatorTest {
+
+    IntervalsService intervals = mock(IntervalsService.class);
+    MeterRegistry registry = new SimpleMeterRegistry();
+    ProtocolsToIntervalsMediator mediator = new ProtocolsToIntervalsMediator(intervals, registry, 100);
+
+    @Test
+    void readsRulesOncePerBoot() {
+        when(intervals.currentRules()).thenReturn(currentRulesSnapshot(1));
+
+        Duration interval = mediator.heartbeatIntervalFor(matchingStrictModelRule());
+
+        assertThat(interval).hasSeconds(60);
+        verify(intervals, times(1)).currentRules();
+    }
+
+    @Test
+    void deviceIdRuleBypassesMemo() {
+        when(intervals.currentRules()).thenReturn(currentRulesSnapshot(1));
+
+        Duration interval = mediator.heartbeatIntervalFor(matchingDeviceIdRule1());
+
+        assertThat(interval).hasSeconds(600);
+        assertThat(memoGets("miss") + memoGets("hit")).isZero();
+    }
+
+    @Test
+    void memoizesIntervalByModel() {
+        when(intervals.currentRules()).thenReturn(currentRulesSnapshot(1));
+
+        mediator.heartbeatIntervalFor(matchingRegexModelRule());
+        Duration interval = mediator.heartbeatIntervalFor(matchingRegexModelRule());
+
+        assertThat(interval).hasSeconds(120);
+        assertThat(memoGets("miss")).isEqualTo(1);
+        assertThat(memoGets("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void forgetsMemoWhenRulesChange() {
+        when(intervals.currentRules()).thenReturn(currentRulesSnapshot(1));
+        mediator.heartbeatIntervalFor(matchingRegexModelRule());
+
+        when(intervals.currentRules()).thenReturn(defaultRulesSnapshot(2));
+        Duration interval = mediator.heartbeatIntervalFor(matchingRegexModelRule());
+
+        assertThat(interval).hasSeconds(1800);
+        assertThat(memoGets("miss")).isEqualTo(2);
+    }
+
+    private double memoGets(String result) {
+        return registry.get("cache.gets")
+                .tag("cache", "heartbeatIntervals")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
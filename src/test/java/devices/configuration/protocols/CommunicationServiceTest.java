@@ -0,0 +1,63 @@
+package devices.configuration.protocols;
+
+import devices.configuration.IntegrationTest;
+import devices.configuration.installations.DomainEvent.InstallationCompleted;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+class CommunicationServiceTest {
+
+    @Autowired
+    CommunicationService service;
+    @Autowired
+    KnownDevicesProjection knownDevices;
+
+    @Test
+    void answersBatchOfBootsInOrder() {
+        String installed = UUID.randomUUID().toString();
+        String unknown = UUID.randomUUID().toString();
+        knownDevices.handleInstallationFinish(new InstallationCompleted("order-id", installed));
+
+        List<CommunicationService.BootResponse> responses = service.handleBoots(List.of(
+                CommunicationFixture.boot(unknown),
+                CommunicationFixture.boot(installed)
+        ));
+
+        assertThat(responses)
+                .extracting(CommunicationService.BootResponse::state)
+                .containsExactly(KnownDevices.State.UNKNOWN, KnownDevices.State.EXISTING);
+        assertThat(responses)
+                .extracting(CommunicationService.BootResponse::serverTime)
+                .containsOnly(responses.get(0).serverTime());
+    }
+
+    @Test
+    void batchAnswersSameAsSingleBoot() {
+        BootNotification boot = CommunicationFixture.boot(UUID.randomUUID().toString());
+
+        Duration single = service.handleBoot(boot).interval();
+        List<String> batched = service.handleBoots(List.of(boot),
+                b -> b,
+                (b, response) -> b.deviceId() + ":" + response.interval());
+
+        assertThat(batched).containsExactly(boot.deviceId() + ":" + single);
+    }
+
+    @Test
+    void batchMarksDevicesAsSeen() {
+        String deviceId = UUID.randomUUID().toString();
+
+        service.handleBoots(List.of(CommunicationFixture.boot(deviceId)));
+
+        assertThat(service.offlineDevices(Integer.MAX_VALUE))
+                .extracting(LastSeenProjection.OfflineDevice::deviceId)
+                .doesNotContain(deviceId);
+    }
+}
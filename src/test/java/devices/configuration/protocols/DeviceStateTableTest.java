@@ -0,0 +1,54 @@
+package devices.configuration.protocols;
+
+import devices.configuration.protocols.KnownDevices.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceStateTableTest {
+
+    final DeviceStateTable table = new DeviceStateTable(4);
+
+    @Test
+    void answersUnknownForMissingDevice() {
+        assertThat(table.get("EVB-P4562137")).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void replacesState() {
+        table.put("EVB-P4562137", State.IN_INSTALLATION);
+        table.put("EVB-P4562137", State.EXISTING);
+
+        assertThat(table.get("EVB-P4562137")).isEqualTo(State.EXISTING);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsStateWhenPutIfAbsent() {
+        table.put("EVB-P4562137", State.IN_INSTALLATION);
+        table.putIfAbsent("EVB-P4562137", State.EXISTING);
+
+        assertThat(table.get("EVB-P4562137")).isEqualTo(State.IN_INSTALLATION);
+    }
+
+    @Test
+    void growsKeepingAllStates() {
+        IntStream.range(0, 100_000).forEach(i -> table.put("device-" + i, State.values()[i % 3]));
+
+        assertThat(table.size()).isEqualTo(100_000);
+        IntStream.range(0, 100_000).forEach(i ->
+                assertThat(table.get("device-" + i)).isEqualTo(State.values()[i % 3]));
+        assertThat(table.get("device-100000")).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void distinguishesIdsByTheirBytes() {
+        table.put("Wrocław-1", State.EXISTING);
+
+        assertThat(table.get("Wrocław-1")).isEqualTo(State.EXISTING);
+        assertThat(table.get("Wroclaw-1")).isEqualTo(State.UNKNOWN);
+        assertThat(table.get("Wrocław-")).isEqualTo(State.UNKNOWN);
+    }
+}
@@ -0,0 +1,89 @@
+package devices.configuration.protocols;
+
+import devices.configuration.IntegrationTest;
+import devices.configuration.installations.DomainEvent.DeviceAssigned;
+import devices.configuration.installations.DomainEvent.InstallationCompleted;
+import devices.configuration.protocols.KnownDevices.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static devices.configuration.TestTransaction.transactional;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@IntegrationTest
+@Transactional
+class KnownDevicesProjectionTest {
+
+    @Autowired
+    KnownDevicesProjection projection;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    void upsertsStateOfInstalledDevice() {
+        String deviceId = UUID.randomUUID().toString();
+
+        transactional(() -> projection.handleInstallationStart(new DeviceAssigned("order-id", deviceId)));
+        assertThat(projection.get(deviceId)).isEqualTo(State.IN_INSTALLATION);
+
+        transactional(() -> projection.handleInstallationFinish(new InstallationCompleted("order-id", deviceId)));
+        assertThat(projection.get(deviceId)).isEqualTo(State.EXISTING);
+        assertThat(storedState(deviceId)).isEqualTo("EXISTING");
+    }
+
+    @Test
+    void answersBatchIncludingUnknownDevices() {
+        String installed = UUID.randomUUID().toString();
+        String unknown = UUID.randomUUID().toString();
+        transactional(() -> projection.handleInstallationFinish(new InstallationCompleted("order-id", installed)));
+
+        assertThat(projection.get(List.of(installed, unknown)))
+                .containsEntry(installed, State.EXISTING)
+                .containsEntry(unknown, State.UNKNOWN);
+    }
+
+    @Test
+    void loadsStatesStoredByOtherNodes() {
+        String deviceId = UUID.randomUUID().toString();
+        transactional(() -> insert(deviceId, State.EXISTING));
+
+        projection.load();
+
+        assertThat(projection.get(deviceId)).isEqualTo(State.EXISTING);
+    }
+
+    @Test
+    void appliesChangesNotifiedByOtherNodes() {
+        String deviceId = UUID.randomUUID().toString();
+
+        transactional(() -> jdbc.execute(
+                "select pg_notify('" + KnownDevicesProjection.CHANNEL + "', '" + deviceId + ":IN_INSTALLATION')"));
+
+        await().untilAsserted(() -> assertThat(projection.get(deviceId)).isEqualTo(State.IN_INSTALLATION));
+    }
+
+    @Test
+    void reloadsInBackground() {
+        String deviceId = UUID.randomUUID().toString();
+        transactional(() -> insert(deviceId, State.IN_INSTALLATION));
+
+        projection.reload();
+        projection.reload();
+
+        await().untilAsserted(() -> assertThat(projection.get(deviceId)).isEqualTo(State.IN_INSTALLATION));
+    }
+
+    private void insert(String deviceId, State state) {
+        jdbc.update("insert into known_device (device_id, state) values (?, ?)", deviceId, state.name());
+    }
+
+    private String storedState(String deviceId) {
+        return jdbc.queryForObject("select state from known_device where device_id = ?", String.class, deviceId);
+    }
+}
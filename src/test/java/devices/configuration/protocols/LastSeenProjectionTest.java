@@ -0,0 +1,105 @@
+package devices.configuration.protocols;
+
+import devices.configuration.IntegrationTest;
+import devices.configuration.protocols.LastSeenProjection.OfflineDevice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+class LastSeenProjectionTest {
+
+    static final Instant NOW = Instant.parse("2000-01-01T12:00:00Z");
+
+    @Autowired
+    LastSeenProjection projection;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    void listsDevicesWhichMissedHeartbeatsLongestSilentFirst() {
+        String silent = UUID.randomUUID().toString();
+        String longestSilent = UUID.randomUUID().toString();
+        String alive = UUID.randomUUID().toString();
+        projection.booted(silent, NOW.minus(Duration.ofMinutes(5)), Duration.ofMinutes(1));
+        projection.booted(longestSilent, NOW.minus(Duration.ofMinutes(10)), Duration.ofMinutes(1));
+        projection.booted(alive, NOW.minus(Duration.ofMinutes(10)), Duration.ofMinutes(1));
+        projection.heartbeat(alive, NOW.minus(Duration.ofMinutes(1)));
+
+        assertThat(offlineAmong(List.of(silent, longestSilent, alive)))
+                .containsExactly(
+                        new OfflineDevice(longestSilent, NOW.minus(Duration.ofMinutes(10))),
+                        new OfflineDevice(silent, NOW.minus(Duration.ofMinutes(5))));
+    }
+
+    @Test
+    void usesDefaultIntervalUntilDeviceBoots() {
+        String deviceId = UUID.randomUUID().toString();
+        projection.heartbeat(deviceId, NOW.minus(Duration.ofMinutes(10)));
+
+        assertThat(offlineAmong(List.of(deviceId))).isEmpty();
+    }
+
+    @Test
+    void keepsIntervalFromBootOnLaterHeartbeats() {
+        String deviceId = UUID.randomUUID().toString();
+        projection.booted(deviceId, NOW.minus(Duration.ofMinutes(20)), Duration.ofMinutes(1));
+        projection.flush();
+        projection.heartbeat(deviceId, NOW.minus(Duration.ofMinutes(10)));
+
+        assertThat(offlineAmong(List.of(deviceId)))
+                .containsExactly(new OfflineDevice(deviceId, NOW.minus(Duration.ofMinutes(10))));
+    }
+
+    @Test
+    void includesHeartbeatsFlushedByOtherNodes() {
+        String deviceId = UUID.randomUUID().toString();
+        jdbc.update("""
+                        insert into device_last_seen (device_id, last_seen, interval_seconds, offline_after)
+                        values (?, ?, ?, ?)""",
+                deviceId, Timestamp.from(NOW.minus(Duration.ofHours(1))), 60,
+                Timestamp.from(NOW.minus(Duration.ofMinutes(57))));
+
+        assertThat(offlineAmong(List.of(deviceId)))
+                .containsExactly(new OfflineDevice(deviceId, NOW.minus(Duration.ofHours(1))));
+    }
+
+    @Test
+    void limitsResult() {
+        projection.booted(UUID.randomUUID().toString(), Instant.EPOCH, Duration.ofMinutes(1));
+        projection.booted(UUID.randomUUID().toString(), Instant.EPOCH, Duration.ofMinutes(1));
+        projection.flush();
+
+        assertThat(projection.offline(NOW, 1))
+                .singleElement()
+                .satisfies(device -> assertThat(device.lastSeen()).isBeforeOrEqualTo(Instant.EPOCH));
+    }
+
+    @Test
+    void extendsOfflineAfterWithEveryHeartbeat() {
+        String deviceId = UUID.randomUUID().toString();
+        projection.booted(deviceId, NOW.minus(Duration.ofMinutes(20)), Duration.ofMinutes(1));
+        projection.flush();
+        projection.heartbeat(deviceId, NOW.minus(Duration.ofMinutes(1)));
+        projection.flush();
+
+        assertThat(jdbc.queryForObject("select offline_after from device_last_seen where device_id = ?",
+                Timestamp.class, deviceId).toInstant())
+                .isEqualTo(NOW.plus(Duration.ofMinutes(2)));
+    }
+
+    private List<OfflineDevice> offlineAmong(List<String> deviceIds) {
+        projection.flush();
+        return projection.offline(NOW, Integer.MAX_VALUE).stream()
+                .filter(device -> deviceIds.contains(device.deviceId()))
+                .toList();
+    }
+}
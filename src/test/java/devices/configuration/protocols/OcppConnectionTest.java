@@ -0,0 +1,52 @@
+package devices.configuration.protocols;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OcppConnectionTest {
+
+    final HeartbeatInterval intervals = mock(HeartbeatInterval.class);
+    final OcppConnection connection = new OcppConnection("device-1");
+    final BootNotification boot = CommunicationFixture.boot("device-1");
+
+    @Test
+    void keepsIntervalOfBoot() {
+        when(intervals.heartbeatIntervalFor(boot)).thenReturn(Duration.ofSeconds(1800));
+
+        assertThat(connection.interval(boot, intervals)).isEqualTo(Duration.ofSeconds(1800));
+        assertThat(connection.interval(boot, intervals)).isEqualTo(Duration.ofSeconds(1800));
+        assertThat(connection.interval(intervals)).contains(Duration.ofSeconds(1800));
+        verify(intervals, times(1)).heartbeatIntervalFor(any());
+    }
+
+    @Test
+    void recalculatesIntervalWhenRulesChanged() {
+        when(intervals.heartbeatIntervalFor(boot)).thenReturn(Duration.ofSeconds(1800), Duration.ofSeconds(600));
+        connection.interval(boot, intervals);
+
+        when(intervals.rulesVersion()).thenReturn(2L);
+
+        assertThat(connection.interval(intervals)).contains(Duration.ofSeconds(600));
+    }
+
+    @Test
+    void recalculatesIntervalWhenBootedAsDifferentModel() {
+        BootNotification upgraded = boot.toBuilder().firmware("2.0").build();
+        when(intervals.heartbeatIntervalFor(boot)).thenReturn(Duration.ofSeconds(1800));
+        when(intervals.heartbeatIntervalFor(upgraded)).thenReturn(Duration.ofSeconds(600));
+        connection.interval(boot, intervals);
+
+        assertThat(connection.interval(upgraded, intervals)).isEqualTo(Duration.ofSeconds(600));
+        assertThat(connection.interval(intervals)).contains(Duration.ofSeconds(600));
+    }
+
+    @Test
+    void hasNoIntervalBeforeBoot() {
+        assertThat(connection.interval(intervals)).isEmpty();
+    }
+}
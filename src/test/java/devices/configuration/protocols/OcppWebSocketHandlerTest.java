@@ -0,0 +1,131 @@
+package devices.configuration.protocols;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static devices.configuration.JsonAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OcppWebSocketHandlerTest {
+
+    final OcppWebSocketHandler handler = new OcppWebSocketHandler("/test/ws", "test") {
+        @Override
+        protected Object call(OcppConnection connection, String action, JsonNode payload) throws IOException {
+            return switch (action) {
+                case "Echo" -> Map.of("deviceId", connection.getDeviceId(), "payload", payload);
+                case "Invalid" -> throw new IllegalArgumentException("invalid");
+                case "Failing" -> throw new IllegalStateException("failing");
+                default -> null;
+            };
+        }
+    };
+    final WebSocketSession session = session("device-1");
+
+    @Test
+    void answersCallWithResult() throws Exception {
+        handler.handleMessage(session, new TextMessage("""
+                [2, "id-1", "Echo", {"a": 1}]"""));
+
+        assertThat(reply()).isExactlyLike("""
+                [3, "id-1", {"deviceId": "device-1", "payload": {"a": 1}}]""");
+    }
+
+    @Test
+    void answersMalformedJsonWithFormationViolation() throws Exception {
+        handler.handleMessage(session, new TextMessage("[2, \"id-1\", \"Echo\""));
+
+        assertThat(reply()).isExactlyLike("""
+                [4, "", "FormationViolation", "Malformed OCPP-J frame", {}]""");
+        verify(session, never()).close();
+    }
+
+    @Test
+    void answersFrameOfWrongShapeWithFormationViolation() throws Exception {
+        handler.handleMessage(session, new TextMessage("""
+                {"action": "Echo"}"""));
+
+        assertThat(reply()).isExactlyLike("""
+                [4, "", "FormationViolation", "Malformed OCPP-J frame", {}]""");
+    }
+
+    @Test
+    void answersCallWithoutPayloadWithFormationViolation() throws Exception {
+        handler.handleMessage(session, new TextMessage("""
+                [2, "id-1", "Echo"]"""));
+
+        assertThat(reply()).isExactlyLike("""
+                [4, "id-1", "FormationViolation", "CALL requires action and payload", {}]""");
+    }
+
+    @Test
+    void answersUnknownActionWithNotImplemented() throws Exception {
+        handler.handleMessage(session, new TextMessage("""
+                [2, "id-1", "Reset", {}]"""));
+
+        assertThat(reply()).isExactlyLike("""
+                [4, "id-1", "NotImplemented", "Action Reset is not supported", {}]""");
+    }
+
+    @Test
+    void answersInvalidPayloadWithFormationViolation() throws Exception {
+        handler.handleMessage(session, new TextMessage("""
+                [2, "id-1", "Invalid", {}]"""));
+
+        assertThat(reply()).isExactlyLike("""
+                [4, "id-1", "FormationViolation", "Invalid payload of Invalid", {}]""");
+    }
+
+    @Test
+    void answersFailureWithInternalError() throws Exception {
+        handler.handleMessage(session, new TextMessage("""
+                [2, "id-1", "Failing", {}]"""));
+
+        assertThat(reply()).isExactlyLike("""
+                [4, "id-1", "InternalError", "Handling of Failing failed", {}]""");
+    }
+
+    @Test
+    void ignoresResultsOfOwnCalls() throws Exception {
+        handler.handleMessage(session, new TextMessage("""
+                [3, "id-1", {}]"""));
+
+        verify(session, never()).sendMessage(any());
+    }
+
+    @Test
+    void decodesDeviceIdFromPath() {
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        when(request.getURI()).thenReturn(URI.create("ws://localhost/test/ws/EVB%2FP%C3%B612"));
+        Map<String, Object> attributes = new HashMap<>();
+
+        handler.beforeHandshake(request, null, handler, attributes);
+
+        Assertions.assertThat(((OcppConnection) attributes.get(OcppConnection.class.getName())).getDeviceId())
+                .isEqualTo("EVB/Pö12");
+    }
+
+    private String reply() throws IOException {
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session).sendMessage(sent.capture());
+        return sent.getValue().getPayload();
+    }
+
+    private static WebSocketSession session(String deviceId) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(OcppConnection.class.getName(), new OcppConnection(deviceId));
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+}
@@ -0,0 +1,51 @@
+package devices.configuration.protocols.iot16;
+
+import devices.configuration.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class IoT16ControllerTest {
+
+    private static final String BOOT = """
+            {
+              "chargePointVendor": "Garo",
+              "chargePointModel": "CPF25 Family",
+              "chargePointSerialNumber": "820394A93203",
+              "firmwareVersion": "1.1"
+            }""";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void answersBatchOfBootNotificationsInOrder() throws Exception {
+        mvc.perform(post("/protocols/iot16/bootnotifications")
+                        .with(csrf())
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"deviceId": "iot16-batch-1", "request": %s},
+                                  {"deviceId": "iot16-batch-2", "request": %s}
+                                ]
+                                """.formatted(BOOT, BOOT)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].deviceId").value("iot16-batch-1"))
+                .andExpect(jsonPath("$[1].deviceId").value("iot16-batch-2"))
+                .andExpect(jsonPath("$[0].response.status").value("Rejected"))
+                .andExpect(jsonPath("$[0].response.interval").isNumber());
+    }
+}
@@ -0,0 +1,87 @@
+package devices.configuration.protocols.iot16;
+
+import devices.configuration.JsonAssert;
+import devices.configuration.protocols.BootNotification;
+import devices.configuration.protocols.CommunicationService;
+import devices.configuration.protocols.CommunicationService.BootResponse;
+import devices.configuration.protocols.KnownDevices;
+import devices.configuration.protocols.OcppConnection;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class IoT16WebSocketHandlerTest {
+
+    static final Instant NOW = Instant.parse("2023-06-01T10:15:30Z");
+
+    final CommunicationService service = mock(CommunicationService.class);
+    final IoT16WebSocketHandler handler = new IoT16WebSocketHandler(service);
+    final WebSocketSession session = mock(WebSocketSession.class);
+
+    @Test
+    void answersBootNotificationOfConnectedDevice() throws Exception {
+        connect("device-16");
+        when(service.handleBoot(any(), any())).thenReturn(
+                new BootResponse(NOW, Duration.ofSeconds(1800), KnownDevices.State.EXISTING));
+
+        handler.handleMessage(session, new TextMessage("""
+                [2, "boot-1", "BootNotification", {"chargePointVendor": "Garo", "chargePointModel": "CPF25 Family", "firmwareVersion": "1.1"}]"""));
+
+        JsonAssert.assertThat(reply()).isExactlyLike("""
+                [3, "boot-1", {"currentTime": "2023-06-01T10:15:30Z", "interval": 1800, "status": "Accepted"}]""");
+        ArgumentCaptor<BootNotification> boot = ArgumentCaptor.forClass(BootNotification.class);
+        verify(service).handleBoot(any(), boot.capture());
+        assertThat(boot.getValue().deviceId()).isEqualTo("device-16");
+        assertThat(boot.getValue().vendor()).isEqualTo("Garo");
+    }
+
+    @Test
+    void answersHeartbeat() throws Exception {
+        connect("device-16");
+        when(service.handleHeartbeat(any(OcppConnection.class))).thenReturn(NOW);
+
+        handler.handleMessage(session, new TextMessage("""
+                [2, "hb-1", "Heartbeat", {}]"""));
+
+        JsonAssert.assertThat(reply()).isExactlyLike("""
+                [3, "hb-1", {"currentTime": "2023-06-01T10:15:30Z"}]""");
+    }
+
+    @Test
+    void rejectsConnectionWithoutDeviceId() {
+        assertThat(handler.beforeHandshake(request("/protocols/iot16/ws/"), null, handler, new HashMap<>()))
+                .isFalse();
+    }
+
+    private void connect(String deviceId) {
+        Map<String, Object> attributes = new HashMap<>();
+        assertThat(handler.beforeHandshake(request("/protocols/iot16/ws/" + deviceId), null, handler, attributes))
+                .isTrue();
+        when(session.getAttributes()).thenReturn(attributes);
+    }
+
+    private static ServerHttpRequest request(String path) {
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        when(request.getURI()).thenReturn(URI.create("ws://localhost" + path));
+        return request;
+    }
+
+    private String reply() throws IOException {
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session).sendMessage(sent.capture());
+        return sent.getValue().getPayload();
+    }
+}
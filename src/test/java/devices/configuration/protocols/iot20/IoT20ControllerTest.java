@@ -0,0 +1,54 @@
+package devices.configuration.protocols.iot20;
+
+import devices.configuration.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class IoT20ControllerTest {
+
+    private static final String BOOT = """
+            {
+              "device": {
+                "serialNumber": "820394A93203",
+                "model": "CPF25 Family",
+                "vendorName": "EVB",
+                "firmwareVersion": "1.0"
+              },
+              "reason": "PowerUp"
+            }""";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void answersBatchOfBootNotificationsInOrder() throws Exception {
+        mvc.perform(post("/protocols/iot20/bootnotifications")
+                        .with(csrf())
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"deviceId": "iot20-batch-1", "request": %s},
+                                  {"deviceId": "iot20-batch-2", "request": %s}
+                                ]
+                                """.formatted(BOOT, BOOT)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].deviceId").value("iot20-batch-1"))
+                .andExpect(jsonPath("$[1].deviceId").value("iot20-batch-2"))
+                .andExpect(jsonPath("$[0].response.status").value("Rejected"))
+                .andExpect(jsonPath("$[0].response.interval").isNumber());
+    }
+}
@@ -9,6 +9,7 @@ import com.tngtech.archunit.lang.ArchRule;
 import devices.configuration.ArchitectureDescription;
 import devices.configuration.device.DeviceConfiguration;
 import devices.configuration.device.Location;
+import devices.configuration.device.OpeningHoursMask;
 import devices.configuration.device.Ownership;
 import devices.configuration.protocols.BootNotification;
 import devices.configuration.protocols.DeviceStatuses;
@@ -25,7 +26,7 @@ public class ArchitectureOfSearchContextTest {
     );
     public static final DescribedPredicate<JavaClass> sharedKernelUsed = belongToAnyOf(
             BootNotification.class, DeviceStatuses.class, DeviceConfiguration.class,
-            Location.class, Location.Coordinates.class, Ownership.class
+            Location.class, Location.Coordinates.class, Ownership.class, OpeningHoursMask.class
     );
 
     @ArchTest
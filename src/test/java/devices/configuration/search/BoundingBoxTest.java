@@ -0,0 +1,39 @@
+package devices.configuration.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundingBoxTest {
+
+    @Test
+    void encodesGeoHash() {
+        assertThat(GeoHash.encode(57.64911, 10.40744, 6)).isEqualTo("u4pruy");
+    }
+
+    @Test
+    void coversBoxWithFinestCellsFittingLimit() {
+        BoundingBox box = new BoundingBox(16.9, 51.05, 17.1, 51.15);
+
+        assertThat(box.precision()).isEqualTo(5);
+        assertThat(box.cells(5))
+                .contains(GeoHash.encode(51.1, 17.0, 5))
+                .contains(GeoHash.encode(51.05, 16.9, 5))
+                .contains(GeoHash.encode(51.15, 17.1, 5));
+    }
+
+    @Test
+    void rejectsBoxCrossingAntimeridian() {
+        assertThatThrownBy(() -> new BoundingBox(170, -10, -170, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("antimeridian")
+                .hasMessageContaining("170.0,-10.0,180,10.0")
+                .hasMessageContaining("-180,-10.0,-170.0,10.0");
+    }
+
+    @Test
+    void tooBigBoxHasNoCells() {
+        assertThat(new BoundingBox(-10, 30, 40, 70).precision()).isZero();
+    }
+}
@@ -0,0 +1,183 @@
+package devices.configuration.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import devices.configuration.IntegrationTest;
+import devices.configuration.device.DeviceFixture;
+import devices.configuration.device.Ownership;
+import devices.configuration.tools.JsonConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static devices.configuration.tools.JsonConfiguration.APPLICATION_SMILE_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class DeviceReadsControllerTest {
+
+    private static final String PINS = "application/vnd.device.pin+json";
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    ReadModelsProjection projection;
+
+    @Test
+    void answersNotModifiedUntilAnyDeviceOfProviderChanges() throws Exception {
+        String provider = DeviceFixture.randomId();
+        Ownership ownership = new Ownership("Devicex.nl", provider);
+        projection.handle(DeviceFixture.givenDeviceConfiguration(DeviceFixture.randomId(), ownership));
+
+        String etag = mvc.perform(get("/devices")
+                        .param("provider", provider).param("page", "0").param("size", "10")
+                        .accept(PINS))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/devices")
+                        .param("provider", provider).param("page", "0").param("size", "10")
+                        .accept(PINS)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        projection.handle(DeviceFixture.givenDeviceConfiguration(DeviceFixture.randomId(), ownership));
+
+        String changed = mvc.perform(get("/devices")
+                        .param("provider", provider).param("page", "0").param("size", "10")
+                        .accept(PINS)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void answersNotModifiedForUnchangedDevice() throws Exception {
+        String deviceId = DeviceFixture.randomId();
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId));
+
+        String etag = mvc.perform(get("/devices/{deviceId}", deviceId)
+                        .accept("application/json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/devices/{deviceId}", deviceId)
+                        .accept("application/json")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void rejectsOpenNowWithoutZone() throws Exception {
+        mvc.perform(get("/devices")
+                        .param("provider", "public-devices").param("page", "0").param("size", "10")
+                        .param("openNow", "true")
+                        .accept(PINS))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/devices")
+                        .param("provider", "public-devices").param("page", "0").param("size", "10")
+                        .param("openNow", "true").param("zone", "Europe/Warsaw")
+                        .accept(PINS))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsBoundingBoxCrossingAntimeridian() throws Exception {
+        mvc.perform(get("/devices")
+                        .param("provider", "public-devices").param("page", "0").param("size", "10")
+                        .param("bbox", "170", "-10", "-170", "10")
+                        .accept(PINS))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamsPinsWithinBoundingBoxInChunks() throws Exception {
+        String provider = DeviceFixture.randomId();
+        Ownership ownership = new Ownership("Devicex.nl", provider);
+        for (int i = 0; i < 3; i++) {
+            projection.handle(DeviceFixture.givenDeviceConfiguration(DeviceFixture.randomId(), ownership));
+        }
+
+        MvcResult started = mvc.perform(get("/devices")
+                        .param("provider", provider)
+                        .param("bbox", "51.09", "16.93", "51.1", "16.94")
+                        .accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String etag = started.getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("W/\"ndjson-");
+        assertThat(started.getResponse().getHeaders("Vary")).contains("Accept");
+
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(3);
+
+        mvc.perform(get("/devices")
+                        .param("provider", provider)
+                        .param("bbox", "51.09", "16.93", "51.1", "16.94")
+                        .accept(APPLICATION_NDJSON)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        MvcResult outside = mvc.perform(get("/devices")
+                        .param("provider", provider)
+                        .param("bbox", "51.1", "16.93", "51.11", "16.94")
+                        .accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(mvc.perform(asyncDispatch(outside))
+                .andReturn().getResponse().getContentAsString())
+                .isEmpty();
+    }
+
+    @Test
+    void roundTripsDetailsAsCbor() throws Exception {
+        assertRoundTrip(APPLICATION_CBOR_VALUE, JsonConfiguration.CBOR_MAPPER, "cbor");
+    }
+
+    @Test
+    void roundTripsDetailsAsSmile() throws Exception {
+        assertRoundTrip(APPLICATION_SMILE_VALUE, JsonConfiguration.SMILE_MAPPER, "smile");
+    }
+
+    private void assertRoundTrip(String mediaType, ObjectMapper mapper, String format) throws Exception {
+        String deviceId = DeviceFixture.randomId();
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId));
+        String jsonETag = mvc.perform(get("/devices/{deviceId}", deviceId)
+                        .accept("application/json"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        MockHttpServletResponse response = mvc.perform(get("/devices/{deviceId}", deviceId)
+                        .accept(mediaType)
+                        .header("If-None-Match", jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse();
+
+        assertThat(response.getHeader("ETag")).contains(format).isNotEqualTo(jsonETag);
+        assertThat(mapper.readTree(response.getContentAsByteArray()).path("deviceId").asText()).isEqualTo(deviceId);
+        mvc.perform(get("/devices/{deviceId}", deviceId)
+                        .accept(mediaType)
+                        .header("If-None-Match", response.getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+}
@@ -0,0 +1,79 @@
+package devices.configuration.search;
+
+import devices.configuration.IntegrationTest;
+import devices.configuration.device.DeviceFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+class OpeningHoursBackfillListenerTest {
+
+    @Autowired
+    OpeningHoursBackfillListener backfill;
+    @Autowired
+    ReadModelsProjection projection;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    void fillsMissingOpeningHours() {
+        String deviceId = DeviceFixture.randomId();
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId));
+        jdbc.update("update device_reads set opening_hours = null where device_id = ?", deviceId);
+
+        backfill.backfill();
+
+        assertThat(jdbc.queryForObject(
+                "select opening_hours from device_reads where device_id = ?", byte[].class, deviceId))
+                .hasSize(84);
+    }
+
+    @Test
+    void fillsMaskWithoutBumpingVersion() {
+        String deviceId = DeviceFixture.randomId();
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId));
+        jdbc.update("update device_reads set opening_hours = null where device_id = ?", deviceId);
+        long version = version(deviceId);
+
+        backfill.backfill();
+
+        assertThat(version(deviceId)).isEqualTo(version);
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId));
+        assertThat(version(deviceId)).isEqualTo(version + 1);
+    }
+
+    @Test
+    void skipsRowsWithUnreadableDetails() {
+        String unreadable = DeviceFixture.randomId();
+        String readable = unreadable + "-next";
+        jdbc.update("insert into device_reads (device_id, version, details) values (?, 0, cast(? as jsonb))",
+                unreadable, "{\"openingHours\": 42}");
+        projection.handle(DeviceFixture.givenDeviceConfiguration(readable));
+        jdbc.update("update device_reads set opening_hours = null where device_id = ?", readable);
+
+        backfill.backfill();
+
+        assertThat(jdbc.queryForObject(
+                "select opening_hours from device_reads where device_id = ?", byte[].class, readable))
+                .hasSize(84);
+    }
+
+    @Test
+    void skipsRowsWithoutDetails() {
+        String deviceId = DeviceFixture.randomId();
+        jdbc.update("insert into device_reads (device_id, version) values (?, 0)", deviceId);
+
+        backfill.backfill();
+
+        assertThat(jdbc.queryForObject(
+                "select opening_hours from device_reads where device_id = ?", byte[].class, deviceId))
+                .isNull();
+    }
+
+    private long version(String deviceId) {
+        return jdbc.queryForObject("select version from device_reads where device_id = ?", Long.class, deviceId);
+    }
+}
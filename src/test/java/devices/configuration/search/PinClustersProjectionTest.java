@@ -0,0 +1,90 @@
+package devices.configuration.search;
+
+import devices.configuration.IntegrationTest;
+import devices.configuration.device.DeviceFixture;
+import devices.configuration.device.Location;
+import devices.configuration.device.Ownership;
+import devices.configuration.protocols.DeviceStatuses;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@Transactional
+class PinClustersProjectionTest {
+
+    @Autowired
+    ReadModelsProjection projection;
+    @Autowired
+    PinClustersProjection clusters;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    final String provider = DeviceFixture.randomId();
+    final String deviceId = DeviceFixture.randomId();
+
+    @Test
+    void foldsMoveAndStatusChangeIntoEveryZoom() {
+        Location before = DeviceFixture.location();
+        Location after = DeviceFixture.someOtherLocation();
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId, ownership(), before));
+        clusters.fold();
+        assertThat(tile(PinClustersProjection.MAX_ZOOM, before))
+                .containsEntry("count", 1L)
+                .containsEntry("faulted", 1L);
+
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId, ownership(), after));
+        projection.handle(new DeviceStatuses(deviceId, List.of("Available")));
+
+        assertThat(tile(PinClustersProjection.MAX_ZOOM, before)).containsEntry("count", 1L);
+        assertThat(tile(PinClustersProjection.MAX_ZOOM, after)).isEmpty();
+
+        clusters.fold();
+
+        assertThat(tile(PinClustersProjection.MAX_ZOOM, before)).isEmpty();
+        assertThat(tile(PinClustersProjection.MAX_ZOOM, after))
+                .containsEntry("count", 1L)
+                .containsEntry("available", 1L)
+                .containsEntry("faulted", 0L);
+        assertThat(tile(0, after))
+                .containsEntry("count", 1L)
+                .containsEntry("available", 1L)
+                .containsEntry("faulted", 0L);
+        assertThat(jdbc.queryForObject("select count(*) from pin_cluster_changes where provider = ?", Long.class, provider))
+                .isZero();
+    }
+
+    @Test
+    void removesTilesOfDeviceLeavingProvider() {
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId, ownership(), DeviceFixture.location()));
+        projection.handle(DeviceFixture.givenDeviceConfiguration(deviceId,
+                new Ownership("Devicex.nl", DeviceFixture.randomId()), DeviceFixture.location()));
+
+        clusters.fold();
+
+        assertThat(jdbc.queryForObject("select count(*) from pin_clusters where provider = ?", Long.class, provider))
+                .isZero();
+    }
+
+    private Ownership ownership() {
+        return new Ownership("Devicex.nl", provider);
+    }
+
+    private Map<String, Object> tile(int zoom, Location location) {
+        double longitude = location.coordinates().longitude().doubleValue();
+        double latitude = location.coordinates().latitude().doubleValue();
+        return jdbc.queryForList("""
+                                select count, available, charging, faulted from pin_clusters
+                                where provider = ? and zoom = ? and x = ? and y = ?""",
+                        provider, zoom, PinClustersProjection.tileX(longitude, zoom), PinClustersProjection.tileY(latitude, zoom))
+                .stream()
+                .findFirst()
+                .orElse(Map.of());
+    }
+}
@@ -3,19 +3,25 @@ package devices.configuration.search;
 import devices.configuration.IntegrationTest;
 import devices.configuration.device.DeviceConfiguration;
 import devices.configuration.device.DeviceFixture;
+import devices.configuration.device.Ownership;
 import devices.configuration.protocols.CommunicationFixture;
 import devices.configuration.tools.JsonConfiguration;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static devices.configuration.JsonAssert.assertThat;
+import static devices.configuration.TestTransaction.transactional;
 
 @IntegrationTest
 @Transactional
@@ -25,12 +31,18 @@ class ReadModelsProjectionTest {
     ReadModelsProjection projection;
     @Autowired
     ReadModelsProjection.DeviceReadsRepository repo;
+    @Autowired
+    PinClustersProjection clusters;
+    @Autowired
+    JdbcTemplate jdbc;
 
     final String deviceId = "fixed-device-id";
 
     @BeforeEach
     void setUp() {
         repo.deleteAll();
+        jdbc.update("delete from pin_clusters");
+        jdbc.update("delete from pin_cluster_changes");
     }
 
     @Test
@@ -116,6 +128,172 @@ class ReadModelsProjectionTest {
                 """);
     }
 
+    @Test
+    void findPinsChunkByChunk() {
+        DeviceConfiguration device = givenDevice();
+        String provider = device.ownership().provider();
+        projection.handle(DeviceFixture.givenDeviceConfiguration("other-device-id"));
+        projection.handle(DeviceFixture.givenDeviceConfiguration("third-device-id"));
+
+        ReadModelsProjection.PinsChunk first = projection.findPinsAfter(provider, null, null, "");
+        ReadModelsProjection.PinsChunk second = projection.findPinsAfter(provider, null, null, first.next());
+
+        Assertions.assertThat(first.pins()).hasSize(2);
+        Assertions.assertThat(first.next()).isEqualTo("other-device-id");
+        Assertions.assertThat(second.pins()).hasSize(1);
+        Assertions.assertThat(second.next()).isNull();
+        Assertions.assertThat(projection.findPinsAfter(provider, new BoundingBox(51.1, 16.93, 51.11, 16.94), null, "").pins())
+                .isEmpty();
+    }
+
+    @Test
+    void findPinsAsRawJson() {
+        DeviceConfiguration device = givenDevice();
+
+        List<String> pins = projection.findPinsAfter(device.ownership().provider(),
+                new BoundingBox(51.09, 16.93, 51.1, 16.94), null, "").pins();
+
+        assertThat("[" + String.join(",", pins) + "]").isExactlyLike("""
+                [
+                  {
+                    "deviceId": "fixed-device-id",
+                    "coordinates": {
+                      "longitude": 51.09836221719513,
+                      "latitude": 16.931752852309156
+                    },
+                    "statuses": [
+                      "AVAILABLE",
+                      "FAULTED"
+                    ]
+                  }
+                ]
+                """);
+    }
+
+    @Test
+    void findPinsOpenAt() {
+        DeviceConfiguration device = givenDevice();
+        ZonedDateTime anyTime = ZonedDateTime.of(2022, 1, 3, 3, 30, 0, 0, ZoneOffset.UTC);
+
+        List<DevicePin> read = projection.findAllPins(device.ownership().provider(), anyTime);
+
+        Assertions.assertThat(read)
+                .extracting(DevicePin::deviceId)
+                .containsExactly(deviceId);
+    }
+
+    @Test
+    void findPinsOpenAtSkipsClosedDevices() {
+        DeviceConfiguration device = givenDevice();
+        projection.handle(DeviceFixture.givenClosedDeviceConfiguration("closed-device-id"));
+        ZonedDateTime anyTime = ZonedDateTime.of(2022, 1, 3, 3, 30, 0, 0, ZoneOffset.UTC);
+        String provider = device.ownership().provider();
+
+        Assertions.assertThat(projection.findAllPins(provider, anyTime))
+                .extracting(DevicePin::deviceId)
+                .containsExactly(deviceId);
+        Assertions.assertThat(projection.findAllPins(provider, new BoundingBox(51.09, 16.93, 51.1, 16.94), anyTime))
+                .extracting(DevicePin::deviceId)
+                .containsExactly(deviceId);
+        Assertions.assertThat(projection.findAllPins(provider, null))
+                .extracting(DevicePin::deviceId)
+                .containsExactlyInAnyOrder(deviceId, "closed-device-id");
+    }
+
+    @Test
+    void findsDevicesWithoutProviderByNullProvider() {
+        givenDevice();
+        projection.handle(DeviceFixture.givenDeviceConfiguration("no-provider-id", new Ownership("Devicex.nl", null)));
+        ZonedDateTime anyTime = ZonedDateTime.of(2022, 1, 3, 3, 30, 0, 0, ZoneOffset.UTC);
+        BoundingBox box = new BoundingBox(51.09, 16.93, 51.1, 16.94);
+
+        Assertions.assertThat(projection.findAllPins(null)).extracting(DevicePin::deviceId).containsExactly("no-provider-id");
+        Assertions.assertThat(projection.findAllPins(null, anyTime)).extracting(DevicePin::deviceId).containsExactly("no-provider-id");
+        Assertions.assertThat(projection.findAllPins(null, box, anyTime)).extracting(DevicePin::deviceId).containsExactly("no-provider-id");
+        Assertions.assertThat(projection.findAllSummary(null, anyTime, Pageable.ofSize(5)).getContent())
+                .extracting(DeviceSummary::deviceId).containsExactly("no-provider-id");
+        Assertions.assertThat(projection.findSummaries(null, null, 5, anyTime, DeviceSummaries.Count.EXACT).total()).isEqualTo(1);
+        Assertions.assertThat(projection.findPinsAfter(null, box, anyTime, "").pins()).hasSize(1);
+        clusters.fold();
+        Assertions.assertThat(clusters.find(null, 0, new BoundingBox(-180, -85, 180, 85)))
+                .extracting(PinCluster::count).containsExactly(1L);
+    }
+
+    @Test
+    void findPinsWithinBoundingBox() {
+        DeviceConfiguration device = givenDevice();
+        String provider = device.ownership().provider();
+
+        Assertions.assertThat(projection.findAllPins(provider, new BoundingBox(51.09, 16.93, 51.1, 16.94), null))
+                .extracting(DevicePin::deviceId)
+                .containsExactly(deviceId);
+        Assertions.assertThat(projection.findAllPins(provider, new BoundingBox(40, 10, 50, 20), null))
+                .extracting(DevicePin::deviceId)
+                .containsExactly(deviceId);
+        Assertions.assertThat(projection.findAllPins(provider, new BoundingBox(51.1, 16.93, 51.11, 16.94), null))
+                .isEmpty();
+    }
+
+    @Test
+    void findSummariesPageByPage() {
+        DeviceConfiguration device = givenDevice();
+        projection.handle(DeviceFixture.givenDeviceConfiguration("other-device-id"));
+        String provider = device.ownership().provider();
+
+        DeviceSummaries first = projection.findSummaries(provider, null, 1, null, DeviceSummaries.Count.EXACT);
+        DeviceSummaries second = projection.findSummaries(provider, DeviceSummaries.deviceId(first.next()), 1, null, DeviceSummaries.Count.NONE);
+
+        Assertions.assertThat(first.content()).extracting(DeviceSummary::deviceId).containsExactly(deviceId);
+        Assertions.assertThat(first.total()).isEqualTo(2);
+        Assertions.assertThat(second.content()).extracting(DeviceSummary::deviceId).containsExactly("other-device-id");
+        Assertions.assertThat(second.next()).isNull();
+        Assertions.assertThat(second.total()).isNull();
+    }
+
+    @Test
+    void clustersPinsPerTile() {
+        DeviceConfiguration device = givenDevice();
+        projection.handle(DeviceFixture.givenDeviceConfiguration("other-device-id"));
+        clusters.fold();
+
+        List<PinCluster> read = clusters.find(device.ownership().provider(), 0, new BoundingBox(-180, -85, 180, 85));
+
+        assertThat(read).isExactlyLike("""
+                [
+                  {
+                    "zoom": 0,
+                    "x": 0,
+                    "y": 0,
+                    "count": 2,
+                    "center": {
+                      "longitude": 51.09836221719513,
+                      "latitude": 16.931752852309156
+                    },
+                    "statuses": {
+                      "AVAILABLE": 1,
+                      "CHARGING": 0,
+                      "FAULTED": 2
+                    }
+                  }
+                ]
+                """);
+    }
+
+    @Test
+    void versionsChangeWithAnyDeviceOnceCommitted() {
+        DeviceConfiguration device = givenDevice();
+        long before = projection.findVersions(device.ownership().provider());
+
+        projection.handle(DeviceFixture.givenDeviceConfiguration("other-device-id"));
+
+        Assertions.assertThat(projection.findVersions(device.ownership().provider()))
+                .isEqualTo(before);
+        transactional(() -> {
+        });
+        Assertions.assertThat(projection.findVersions(device.ownership().provider()))
+                .isNotEqualTo(before);
+    }
+
     @Test
     void findAllSummary() {
         DeviceConfiguration device = givenDevice();
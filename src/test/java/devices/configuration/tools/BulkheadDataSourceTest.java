@@ -0,0 +1,72 @@
+package devices.configuration.tools;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadDataSourceTest {
+
+    final CountingPool pool = new CountingPool();
+    final BulkheadDataSource bulkhead = new BulkheadDataSource(pool, 2, 50);
+
+    @Test
+    void timesOutWhenAllPermitsAreTaken() throws Exception {
+        bulkhead.getConnection();
+        bulkhead.getConnection();
+
+        assertThatThrownBy(bulkhead::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(pool.opened).hasValue(2);
+    }
+
+    @Test
+    void releasesPermitOnceWhenConnectionIsClosed() throws Exception {
+        Connection first = bulkhead.getConnection();
+        bulkhead.getConnection();
+
+        first.close();
+        first.close();
+
+        bulkhead.getConnection();
+        assertThatThrownBy(bulkhead::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(pool.closed).hasValue(2);
+    }
+
+    @Test
+    void unwrapsToPool() throws Exception {
+        assertThat(bulkhead.isWrapperFor(CountingPool.class)).isTrue();
+        assertThat(bulkhead.unwrap(CountingPool.class)).isSameAs(pool);
+    }
+
+    static class CountingPool extends AbstractDataSource {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+
+        @Override
+        public Connection getConnection() {
+            opened.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close")) {
+                            closed.incrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package devices.configuration.tools;
+
+import devices.configuration.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@IntegrationTest
+class OutboxRelayTest {
+
+    @Autowired
+    Outbox outbox;
+    @Autowired
+    Probes probes;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    void keepsOrderOfAggregateWhileRetrying() {
+        String aggregate = UUID.randomUUID().toString();
+        probes.failing(aggregate, 1, 2);
+
+        outbox.publishAll(aggregate, List.of(new Probe(aggregate, 1), new Probe(aggregate, 2)));
+
+        await().untilAsserted(() -> assertThat(probes.delivered(aggregate)).containsExactly(1, 2));
+    }
+
+    @Test
+    void deadLettersEventFailingTooOften() {
+        String aggregate = UUID.randomUUID().toString();
+        probes.failing(aggregate, 1, Integer.MAX_VALUE);
+
+        outbox.publishAll(aggregate, List.of(new Probe(aggregate, 1), new Probe(aggregate, 2)));
+
+        await().untilAsserted(() -> assertThat(probes.delivered(aggregate)).containsExactly(2));
+        assertThat(jdbc.queryForMap(
+                "select attempts, dead, last_error from outbox where aggregate_id = ?", aggregate))
+                .containsEntry("attempts", 3)
+                .containsEntry("dead", true)
+                .hasEntrySatisfying("last_error", error -> assertThat((String) error).contains("probe 1 failed"));
+    }
+
+    @Test
+    void failingAggregateDoesNotBlockOthers() {
+        String failing = UUID.randomUUID().toString();
+        String healthy = UUID.randomUUID().toString();
+        probes.failing(failing, 1, Integer.MAX_VALUE);
+
+        outbox.publish(failing, new Probe(failing, 1));
+        outbox.publish(healthy, new Probe(healthy, 1));
+
+        await().untilAsserted(() -> assertThat(probes.delivered(healthy)).containsExactly(1));
+        assertThat(probes.delivered(failing)).isEmpty();
+    }
+
+    record Probe(String aggregate, int sequence) {
+    }
+
+    static class Probes {
+        private final Map<String, List<Integer>> delivered = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+        void failing(String aggregate, int sequence, int times) {
+            failures.put(aggregate + "/" + sequence, new AtomicInteger(times));
+        }
+
+        List<Integer> delivered(String aggregate) {
+            return delivered.getOrDefault(aggregate, List.of());
+        }
+
+        @EventListener
+        void handle(Probe probe) {
+            AtomicInteger failing = failures.get(probe.aggregate() + "/" + probe.sequence());
+            if (failing != null && failing.getAndDecrement() > 0) {
+                throw new IllegalStateException("probe " + probe.sequence() + " failed");
+            }
+            delivered.computeIfAbsent(probe.aggregate(), key -> new CopyOnWriteArrayList<>())
+                    .add(probe.sequence());
+        }
+    }
+
+    @TestConfiguration
+    static class ProbesConfiguration {
+        @Bean
+        Probes probes() {
+            return new Probes();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package devices.configuration.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdsTest {
+
+    final TimeOrderedIds ids = new TimeOrderedIds();
+
+    @Test
+    void layoutsVersion7WithEpochMillisUpFront() {
+        long millis = Instant.parse("2030-01-01T00:00:00Z").toEpochMilli();
+
+        UUID id = ids.next(millis);
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(millis);
+        assertThat(id.toString()).startsWith(String.format("%08x-%04x", millis >>> 16, millis & 0xFFFF));
+    }
+
+    @Test
+    void generatesIncreasingIdsWithinSameMilli() {
+        long millis = Instant.parse("2031-01-01T00:00:00Z").toEpochMilli();
+
+        List<String> generated = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            generated.add(ids.next(millis).toString());
+        }
+
+        assertThat(generated).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.naturalOrder());
+    }
+
+    @Test
+    void keepsIncreasingWhenClockStepsBack() {
+        long millis = Instant.parse("2032-01-01T00:00:00Z").toEpochMilli();
+
+        String before = ids.next(millis).toString();
+        String after = ids.next(millis - 1000).toString();
+
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    void sortsByTimeOfGeneration() {
+        String earlier = ids.next().toString();
+        String later = ids.next(System.currentTimeMillis() + 60_000).toString();
+
+        assertThat(later).isGreaterThan(earlier);
+    }
+}
@@ -0,0 +1,42 @@
+package devices.configuration.tools;
+
+import com.zaxxer.hikari.HikariDataSource;
+import devices.configuration.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@TestPropertySource(properties = "execution.virtual-threads=true")
+class VirtualThreadsConfigurationTest {
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    HikariDataSource pool;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    MeterRegistry meters;
+
+    @Test
+    void consumersGetPoolBehindBulkhead() {
+        assertThat(dataSource).isInstanceOf(BulkheadDataSource.class);
+        assertThat(jdbc.getDataSource()).isSameAs(dataSource);
+        assertThat(jdbc.queryForObject("select 1", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void poolKeepsItsConfigurationAndMetrics() {
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(15);
+        assertThat(meters.find("hikaricp.connections.max").gauge())
+                .isNotNull()
+                .satisfies(gauge -> assertThat(gauge.value()).isEqualTo(15.0));
+    }
+}